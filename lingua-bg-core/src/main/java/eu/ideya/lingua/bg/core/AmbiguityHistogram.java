@@ -0,0 +1,65 @@
+/*
+ *   Copyright (C) 2026 Grigor Iliev <grigor@grigoriliev.com>
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package eu.ideya.lingua.bg.core;
+
+import java.util.Arrays;
+import java.util.TreeMap;
+
+/**
+ * The number of words for each ambiguity count, updated when the
+ * ambiguity count of a word changes.
+ */
+final class AmbiguityHistogram {
+	/** The number of words indexed by ambiguity count. */
+	private int[] counts = new int[16];
+
+	/**
+	 * Moves a word from ambiguity count <code>from</code> to ambiguity
+	 * count <code>to</code>. Zero means that the word is not counted.
+	 */
+	void move(int from, int to) {
+		if(from == to) return;
+
+		if(from > 0) counts[from]--;
+
+		if(to > 0) {
+			if(to >= counts.length) counts = Arrays.copyOf(counts, Math.max(to + 1, counts.length * 2));
+			counts[to]++;
+		}
+	}
+
+	/** Returns the number of words with the specified ambiguity count. */
+	int get(int ambiguityCount) {
+		return ambiguityCount > 0 && ambiguityCount < counts.length ? counts[ambiguityCount] : 0;
+	}
+
+	void clear() { Arrays.fill(counts, 0); }
+
+	/**
+	 * Returns a map with the ambiguity counts as keys and the number
+	 * of words as values. Ambiguity counts without words are omitted.
+	 */
+	TreeMap<Integer, Integer> toMap() {
+		TreeMap<Integer, Integer> m = new TreeMap<>();
+
+		for(int i = 1; i < counts.length; i++) {
+			if(counts[i] > 0) m.put(i, counts[i]);
+		}
+
+		return m;
+	}
+}
@@ -30,7 +30,15 @@ import java.util.ArrayList;
  *
  */
 public class BTBUtils {
-
+	private static final int FAKE_MASCULINE_NOUN_TYPE = BgGrammarType.getTypeId("40c");
+	private static final int FAKE_FEMININE_NOUN_TYPE = BgGrammarType.getTypeId("53c");
+	private static final int FAKE_NOUN_TYPE = BgGrammarType.getTypeId("75c");
+	private static final int FAKE_ADJECTIVE_TYPE = BgGrammarType.getTypeId("89c");
+	private static final int FAKE_PRONOUN_TYPE = BgGrammarType.getTypeId("130c");
+	private static final int FAKE_NUMERAL_TYPE = BgGrammarType.getTypeId("141c");
+	private static final int FAKE_VERB_TYPE = BgGrammarType.getTypeId("187c");
+	private static final int FAKE_ADVERB_TYPE = BgGrammarType.getTypeId("188c");
+	private static final int FAKE_CONJUNCTION_TYPE = BgGrammarType.getTypeId("189c");
 
 	/**
 	 * Returns the BTB-TS grammatical character representing the specified
@@ -96,23 +104,33 @@ public class BTBUtils {
 	 * or <code>-1</code> if the specified tag is not a valid BTB-TS tag.
 	 */
 	public static int getFakeBgGrammarType(String tag) {
-		if(tag == null || tag.isEmpty()) return -1;
+		if(tag == null) return -1;
+		return getFakeBgGrammarType(tag, 0, tag.length());
+	}
+
+	/**
+	 * Gets a nonstandard (fake) BG grammatical type based on the BTB-TS
+	 * tag <code>tag[start, end)</code>.
+	 * @see #getFakeBgGrammarType(String)
+	 */
+	public static int getFakeBgGrammarType(CharSequence tag, int start, int end) {
+		if(start >= end) return -1;
 
-		switch(tag.charAt(0)) {
+		switch(tag.charAt(start)) {
 			case 'N':
-				if(tag.length() > 2) {
-					char c = tag.charAt(2);
-					if(c == 'm') return BgGrammarType.getTypeId("40c");
-					if(c == 'f') return BgGrammarType.getTypeId("53c");
+				if(end - start > 2) {
+					char c = tag.charAt(start + 2);
+					if(c == 'm') return FAKE_MASCULINE_NOUN_TYPE;
+					if(c == 'f') return FAKE_FEMININE_NOUN_TYPE;
 				}
 
-				return BgGrammarType.getTypeId("75c");
-			case 'A': return BgGrammarType.getTypeId("89c");
-			case 'P': return BgGrammarType.getTypeId("130c");
-			case 'M': return BgGrammarType.getTypeId("141c");
-			case 'V': return BgGrammarType.getTypeId("187c");
-			case 'D': return BgGrammarType.getTypeId("188c");
-			case 'C': return BgGrammarType.getTypeId("189c");
+				return FAKE_NOUN_TYPE;
+			case 'A': return FAKE_ADJECTIVE_TYPE;
+			case 'P': return FAKE_PRONOUN_TYPE;
+			case 'M': return FAKE_NUMERAL_TYPE;
+			case 'V': return FAKE_VERB_TYPE;
+			case 'D': return FAKE_ADVERB_TYPE;
+			case 'C': return FAKE_CONJUNCTION_TYPE;
 		}
 
 		return -1;
@@ -912,8 +930,13 @@ public class BTBUtils {
 
 	/**
 	 * Returns the BTB-TS tag of the specified grammatical label UID.
+	 * The tags are cached by {@link LabelRegistry}.
 	 */
 	public static String getTag(int grammLabelUid) {
+		return LabelRegistry.getTag(grammLabelUid);
+	}
+
+	static String computeTag(int grammLabelUid) {
 		final StringBuilder sb = new StringBuilder();
 
 		char lc = getLexicalClassChar(grammLabelUid);
@@ -1118,7 +1141,43 @@ public class BTBUtils {
 	 * or <code>-1</code> if the specified tag is not a valid BTB-TS tag.
 	 */
 	public static int getGrammLabelUid(String tag) {
-		return getGrammLabelUid(tag, getFakeBgGrammarType(tag));
+		if(tag == null) return -1;
+		return getGrammLabelUid(tag, 0, tag.length());
+	}
+
+	/**
+	 * Returns the grammatical label UID of the BTB-TS tag
+	 * <code>tag[start, end)</code>, or <code>-1</code> if it is not
+	 * a valid BTB-TS tag. The tags already converted, which are the
+	 * tags of their labels, are looked up without allocation.
+	 * @see LabelRegistry#findTag(CharSequence, int, int)
+	 */
+	public static int getGrammLabelUid(CharSequence tag, int start, int end) {
+		int uid = LabelRegistry.findTag(tag, start, end);
+		if(uid != LabelRegistry.NOT_FOUND) return uid;
+
+		uid = getGrammLabelUid(tag, start, end, getFakeBgGrammarType(tag, start, end));
+		if(uid != -1) LabelRegistry.addTag(uid, tag, start, end);
+
+		return uid;
+	}
+
+	/**
+	 * Returns the grammatical label UID of the UTF-8 encoded BTB-TS tag
+	 * <code>b[off, off + len)</code>, or <code>-1</code> if it is not
+	 * a valid BTB-TS tag.
+	 * @see #getGrammLabelUid(CharSequence, int, int)
+	 */
+	public static int getGrammLabelUid(byte[] b, int off, int len) {
+		// the BTB-TS tags are ASCII
+		for(int i = off; i < off + len; i++) {
+			if(b[i] < 0) return -1;
+		}
+
+		int uid = LabelRegistry.findTag(b, off, len);
+		if(uid != LabelRegistry.NOT_FOUND) return uid;
+
+		return getGrammLabelUid(new String(b, off, len, StandardCharsets.US_ASCII));
 	}
 
 	/**
@@ -1127,17 +1186,23 @@ public class BTBUtils {
 	 * @param type Specifies the BG grammatical type of the word.
 	 */
 	public static int getGrammLabelUid(String tag, int type) {
+		return getGrammLabelUid(tag, 0, tag.length(), type);
+	}
+
+	private static int getGrammLabelUid(CharSequence tag, int start, int end, int type) {
 		if(type == -1) return -1;
 		type = BgGrammarType.getTypeId(type);
 
-		switch(tag.charAt(0)) {
-			case 'N': return type | getNounGrammLabelUid(tag);
-			case 'A': return type | getAdjectiveGrammLabelUid(tag);
-			case 'P': return type | getPronounGrammLabelUid(tag);
-			case 'M': return type | getNumeralGrammLabelUid(tag);
-			case 'V': return type | getVerbGrammLabelUid(tag);
-			case 'D': return type | getAdverbGrammLabelUid(tag);
-			case 'C': return type | getConjunctionGrammLabelUid(tag);
+		int len = end - start;
+
+		switch(tag.charAt(start)) {
+			case 'N': return type | getNounGrammLabelUid(tag, start, len);
+			case 'A': return type | getAdjectiveGrammLabelUid(tag, start, len);
+			case 'P': return type | getPronounGrammLabelUid(tag, start, len);
+			case 'M': return type | getNumeralGrammLabelUid(tag, start, len);
+			case 'V': return type | getVerbGrammLabelUid(tag, start, len);
+			case 'D': return type | getAdverbGrammLabelUid(tag, start, len);
+			case 'C': return type | getConjunctionGrammLabelUid(tag, start, len);
 		}
 
 		return -1;
@@ -1146,6 +1211,7 @@ public class BTBUtils {
 	/**
 	 * Compare the specified tags ignoring fields that are not set ('-' fields)
 	 * in at least one of the tags.
+	 * @see TagPattern#matches
 	 */
 	public static boolean differentTags(String tag1, String tag2) {
 		int size = Math.min(tag1.length(), tag2.length());
@@ -1158,6 +1224,16 @@ public class BTBUtils {
 		return false;
 	}
 
+	/**
+	 * Determines whether the tag of the specified grammatical label UID
+	 * contains all the features specified in <code>featuresTag</code>.
+	 * @see TagPattern#isMatchedBy
+	 */
+	public static boolean hasFeatures(int grammLabelUid, String featuresTag) {
+		if(featuresTag == null) return false;
+		return TagPattern.compile(featuresTag).isMatchedBy(grammLabelUid);
+	}
+
 	/**
 	 * Determines whether <code>tag</code> contains all the features specified
 	 * in <code>featuresTag</code>.
@@ -1174,54 +1250,54 @@ public class BTBUtils {
 		return true;
 	}
 
-	private static int getNounGrammLabelUid(String tag) {
+	private static int getNounGrammLabelUid(CharSequence tag, int start, int len) {
 		int uid = 0;
 
-		if(tag.length() < 2) return uid;
-		uid = encodeNounType(uid, tag.charAt(1));
+		if(len < 2) return uid;
+		uid = encodeNounType(uid, tag.charAt(start + 1));
 
-		if(tag.length() < 3) return uid;
-		uid = encodeGender(uid, tag.charAt(2));
+		if(len < 3) return uid;
+		uid = encodeGender(uid, tag.charAt(start + 2));
 
-		if(tag.length() < 4) return uid;
-		uid = encodeNumber(uid, tag.charAt(3));
+		if(len < 4) return uid;
+		uid = encodeNumber(uid, tag.charAt(start + 3));
 
-		if(tag.length() < 5) return uid;
-		uid = encodeArticle(uid, tag.charAt(4));
+		if(len < 5) return uid;
+		uid = encodeArticle(uid, tag.charAt(start + 4));
 
-		if(tag.length() < 6) return uid;
-		uid = encodeNounCase(uid, tag.charAt(5));
+		if(len < 6) return uid;
+		uid = encodeNounCase(uid, tag.charAt(start + 5));
 
 		return uid;
 	}
 
-	private static int getAdjectiveGrammLabelUid(String tag) {
+	private static int getAdjectiveGrammLabelUid(CharSequence tag, int start, int len) {
 		int uid = 0;
 
-		if(tag.length() < 2) return uid;
-		uid = encodeGender(uid, tag.charAt(1));
+		if(len < 2) return uid;
+		uid = encodeGender(uid, tag.charAt(start + 1));
 
-		if(tag.length() < 3) return uid;
-		uid = encodeNumber(uid, tag.charAt(2));
+		if(len < 3) return uid;
+		uid = encodeNumber(uid, tag.charAt(start + 2));
 
-		if(tag.length() < 4) return uid;
-		uid = encodeArticle(uid, tag.charAt(3));
+		if(len < 4) return uid;
+		uid = encodeArticle(uid, tag.charAt(start + 3));
 
 		// TODO: P05
 
 		return uid;
 	}
 
-	private static int getPronounGrammLabelUid(String tag) {
+	private static int getPronounGrammLabelUid(CharSequence tag, int start, int len) {
 		int uid = 0;
 
-		if(tag.length() < 2) return uid;
-		uid = encodePronounType(uid, tag.charAt(1));
+		if(len < 2) return uid;
+		uid = encodePronounType(uid, tag.charAt(start + 1));
 
 		// TODO: P03
 
-		if(tag.length() < 4) return uid;
-		char c = tag.charAt(3);
+		if(len < 4) return uid;
+		char c = tag.charAt(start + 3);
 
 		if(c == 'l') {
 			uid = GrammaticalLabel.encodePronounForm(uid, PronounForm.FULL);
@@ -1229,99 +1305,99 @@ public class BTBUtils {
 			uid = GrammaticalLabel.encodePronounForm(uid, PronounForm.SHORT);
 		}
 
-		if(tag.length() < 5) return uid;
-		uid = encodePronounCase(uid, tag.charAt(4));
+		if(len < 5) return uid;
+		uid = encodePronounCase(uid, tag.charAt(start + 4));
 
-		if(tag.length() < 6) return uid;
-		uid = encodeNumber(uid, tag.charAt(5));
+		if(len < 6) return uid;
+		uid = encodeNumber(uid, tag.charAt(start + 5));
 
-		if(tag.length() < 7) return uid;
-		uid = encodePerson(uid, tag.charAt(6));
+		if(len < 7) return uid;
+		uid = encodePerson(uid, tag.charAt(start + 6));
 
-		if(tag.length() < 8) return uid;
-		uid = encodeGender(uid, tag.charAt(7));
+		if(len < 8) return uid;
+		uid = encodeGender(uid, tag.charAt(start + 7));
 
-		if(tag.length() < 9) return uid;
-		uid = encodeArticle(uid, tag.charAt(8));
+		if(len < 9) return uid;
+		uid = encodeArticle(uid, tag.charAt(start + 8));
 
 		// TODO: encode gender of the possessor
-		//if(tag.length() < 10) return uid;
-		//uid = encode(uid, tag.charAt(9));
+		//if(len < 10) return uid;
+		//uid = encode(uid, tag.charAt(start + 9));
 
 		return uid;
 	}
 
-	private static int getNumeralGrammLabelUid(String tag) {
+	private static int getNumeralGrammLabelUid(CharSequence tag, int start, int len) {
 		int uid = 0;
 
-		if(tag.length() > 1) {
-			uid = encodeNumeralType(uid, tag.charAt(1));
+		if(len > 1) {
+			uid = encodeNumeralType(uid, tag.charAt(start + 1));
 		}
 
-		if(tag.length() < 3) return uid;
-		uid = encodeGender(uid, tag.charAt(2));
+		if(len < 3) return uid;
+		uid = encodeGender(uid, tag.charAt(start + 2));
 
-		if(tag.length() < 4) return uid;
-		uid = encodeNumber(uid, tag.charAt(3));
+		if(len < 4) return uid;
+		uid = encodeNumber(uid, tag.charAt(start + 3));
 
-		if(tag.length() < 5) return uid;
-		uid = encodeArticle(uid, tag.charAt(4));
+		if(len < 5) return uid;
+		uid = encodeArticle(uid, tag.charAt(start + 4));
 
 		return uid;
 	}
 
-	private static int getVerbGrammLabelUid(String tag) {
+	private static int getVerbGrammLabelUid(CharSequence tag, int start, int len) {
 		int uid = 0;
 
-		if(tag.length() > 1) {
-			uid = encodeVerbType(uid, tag.charAt(1));
+		if(len > 1) {
+			uid = encodeVerbType(uid, tag.charAt(start + 1));
 		}
 
-		if(tag.length() < 3) return uid;
-		uid = encodeAspect(uid, tag.charAt(2));
+		if(len < 3) return uid;
+		uid = encodeAspect(uid, tag.charAt(start + 2));
 
-		if(tag.length() < 4) return uid;
-		uid = encodeTransitivity(uid, tag.charAt(3));
+		if(len < 4) return uid;
+		uid = encodeTransitivity(uid, tag.charAt(start + 3));
 
-		if(tag.length() < 5) return uid;
-		uid = encodeVerbForm(uid, tag.charAt(4));
+		if(len < 5) return uid;
+		uid = encodeVerbForm(uid, tag.charAt(start + 4));
 
-		if(tag.length() < 6) return uid;
-		uid = encodeVoice(uid, tag.charAt(5));
+		if(len < 6) return uid;
+		uid = encodeVoice(uid, tag.charAt(start + 5));
 
-		if(tag.length() < 7) return uid;
-		uid = encodeTense(uid, tag.charAt(6));
+		if(len < 7) return uid;
+		uid = encodeTense(uid, tag.charAt(start + 6));
 
-		if(tag.length() < 8) return uid;
-		uid = encodePerson(uid, tag.charAt(7));
+		if(len < 8) return uid;
+		uid = encodePerson(uid, tag.charAt(start + 7));
 
-		if(tag.length() < 9) return uid;
-		uid = encodeNumber(uid, tag.charAt(8));
+		if(len < 9) return uid;
+		uid = encodeNumber(uid, tag.charAt(start + 8));
 
-		if(tag.length() < 10) return uid;
-		uid = encodeGender(uid, tag.charAt(9));
+		if(len < 10) return uid;
+		uid = encodeGender(uid, tag.charAt(start + 9));
 
-		if(tag.length() < 11) return uid;
-		uid = encodeArticle(uid, tag.charAt(10));
+		if(len < 11) return uid;
+		uid = encodeArticle(uid, tag.charAt(start + 10));
 
 		return uid;
 	}
 
-	private static int getAdverbGrammLabelUid(String tag) {
+	private static int getAdverbGrammLabelUid(CharSequence tag, int start, int len) {
 		int uid = 0;
 
-		if(tag.length() > 1) {
+		if(len > 1) {
 			// TODO:
 		}
 
 		return uid;
 	}
 
-	private static int getConjunctionGrammLabelUid(String tag) {
+	private static int getConjunctionGrammLabelUid(CharSequence tag, int start, int len) {
 		int uid = 0;
 
-		if(tag.length() > 1) {
-			//uid = encodePronounType(uid, tag.charAt(1));
+		if(len > 1) {
+			//uid = encodePronounType(uid, tag.charAt(start + 1));
 		}
 
 		return uid;
@@ -1392,32 +1468,34 @@ public class BTBUtils {
 	private static void readLexeme(ArrayList<String> lines, int uid, BgDictionary dict) throws Exception {
 		if(lines.isEmpty()) return;
 
-		WordEntry we = readWordEntry(lines.get(0), -1, uid);
-		int lemma = we.id;
-		dict.addWord(we);
+		WordEntry lemma = addWordEntry(lines.get(0), -1, uid, dict);
+		if(lemma == null) return;
 
 		for(int i = 1; i < lines.size(); i++) {
-			dict.addWord(readWordEntry(lines.get(i), lemma, uid));
+			addWordEntry(lines.get(i), lemma.id, uid, dict);
 		}
 	}
 
-	private static WordEntry readWordEntry(String line, int lemma, int uid) {
+	/**
+	 * Adds the word entry in the specified line to the dictionary, which
+	 * assigns its ID.
+	 * @return The added word entry, or <code>null</code> if it is a duplicate.
+	 */
+	private static WordEntry addWordEntry(String line, int lemma, int uid, BgDictionary dict) throws Exception {
 		int idx = line.indexOf('\t');
 		if(idx == -1) {
 			throw new IllegalArgumentException("Unsupported format!");
 		}
 
 		String word = line.substring(0, idx);
-		String tag = line.substring(idx + 1);
-		int glu = getGrammLabelUid(tag);
+		int glu = getGrammLabelUid(line, idx + 1, line.length());
 
 		if(GrammaticalLabel.getLexicalClass(uid) != GrammaticalLabel.getLexicalClass(glu)) {
 			throw new IllegalArgumentException("Lexical class mismatch in: " + word);
 		}
 
 		uid = BgGrammarType.encodeType(uid, glu);
-		WordEntry we = new WordEntry(word, lemma, uid);
 
-		return we;
+		return dict.addWord(word, uid, lemma);
 	}
 }
@@ -16,25 +16,32 @@
 
 package eu.ideya.lingua.bg.core;
 
-import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map.Entry;
+import java.util.Map;
 import java.util.NavigableMap;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  *
@@ -64,79 +71,78 @@ public class BgDictionary {
 
 
 		public void compile() {
-			// FIXME: glId not actually encoded
 			if(gender != null) {
-				GrammaticalLabel.encodeGender(glId, gender);
+				glId = GrammaticalLabel.encodeGender(glId, gender);
 				glMask |= GrammaticalLabel.genderMask;
 			}
 
 			if(person != null) {
-				GrammaticalLabel.encodePerson(glId, person);
+				glId = GrammaticalLabel.encodePerson(glId, person);
 				glMask |= GrammaticalLabel.personMask;
 			}
 
 			if(article != null) {
-				GrammaticalLabel.encodeArticle(glId, article);
+				glId = GrammaticalLabel.encodeArticle(glId, article);
 				glMask |= GrammaticalLabel.articleMask;
 			}
 
 			if(number != null) {
-				GrammaticalLabel.encodeNumber(glId, number);
+				glId = GrammaticalLabel.encodeNumber(glId, number);
 				glMask |= GrammaticalLabel.numberMask;
 			}
 
 			if(nounCase != null) {
-				GrammaticalLabel.encodeNounCase(glId, nounCase);
+				glId = GrammaticalLabel.encodeNounCase(glId, nounCase);
 				glMask |= GrammaticalLabel.caseMask;
 			}
 
 			if(adjectiveCase != null) {
-				GrammaticalLabel.encodeAdjectiveCase(glId, adjectiveCase);
+				glId = GrammaticalLabel.encodeAdjectiveCase(glId, adjectiveCase);
 				glMask |= GrammaticalLabel.caseMask;
 			}
 
 			if(pronounType != null) {
-				GrammaticalLabel.encodePronounType(glId, pronounType);
+				glId = GrammaticalLabel.encodePronounType(glId, pronounType);
 				glMask |= GrammaticalLabel.pronounTypeMask;
 			}
 
 			if(pronounCase != null) {
-				GrammaticalLabel.encodePronounCase(glId, pronounCase);
+				glId = GrammaticalLabel.encodePronounCase(glId, pronounCase);
 				glMask |= GrammaticalLabel.caseMask;
 			}
 
 			if(pronounForm != null) {
-				GrammaticalLabel.encodePronounForm(glId, pronounForm);
+				glId = GrammaticalLabel.encodePronounForm(glId, pronounForm);
 				glMask |= GrammaticalLabel.pronounFormMask;
 			}
 
 			if(verbType != null) {
-				GrammaticalLabel.encodeVerbType(glId, verbType);
+				glId = GrammaticalLabel.encodeVerbType(glId, verbType);
 				glMask |= GrammaticalLabel.verbTypeMask;
 			}
 
 			if(aspect != null) {
-				GrammaticalLabel.encodeAspect(glId, aspect);
+				glId = GrammaticalLabel.encodeAspect(glId, aspect);
 				glMask |= GrammaticalLabel.aspectMask;
 			}
 
 			if(transitivity != null) {
-				GrammaticalLabel.encodeTransitivity(glId, transitivity);
+				glId = GrammaticalLabel.encodeTransitivity(glId, transitivity);
 				glMask |= GrammaticalLabel.transitivityMask;
 			}
 
 			if(verbForm != null) {
-				GrammaticalLabel.encodeVerbForm(glId, verbForm);
+				glId = GrammaticalLabel.encodeVerbForm(glId, verbForm);
 				glMask |= GrammaticalLabel.verbFormMask;
 			}
 
 			if(voice != null) {
-				GrammaticalLabel.encodeVoice(glId, voice);
+				glId = GrammaticalLabel.encodeVoice(glId, voice);
 				glMask |= GrammaticalLabel.voiceMask;
 			}
 
 			if(tense != null) {
-				GrammaticalLabel.encodeTense(glId, tense);
+				glId = GrammaticalLabel.encodeTense(glId, tense);
 				glMask |= GrammaticalLabel.tenseMask;
 			}
 		}
@@ -190,22 +196,197 @@ public class BgDictionary {
 		return null;
 	}
 
-	private HashMap<String, TreeSet<WordEntry>> map = new HashMap<>();
+	private final HashMap<String, WordBucket> map;
 
 	/** Grammatical label UID as a key */
-	private TreeMap<Integer, TreeSet<WordEntry>> gluidMap = new TreeMap<>();
+	private final TreeMap<Integer, TreeSet<WordEntry>> gluidMap;
 
 	/**
 	 * Word ID as a key.
 	 * It is expected that by design the words are added to this collection
 	 * in specific order - the lemma first, followed by its inflected forms.
 	 */
-	private TreeMap<Integer, WordEntry> widMap = new TreeMap<>();
+	private final TreeMap<Integer, WordEntry> widMap;
+
+	/** Allocates the IDs of the words added to this dictionary. */
+	private final IdAllocator ids;
+
+	/**
+	 * Read-only dictionaries are created by {@link Builder} and are
+	 * never changed, so they can be read concurrently without locking.
+	 */
+	private final boolean readOnly;
+
+	/*
+	 * The indexes are built on demand and discarded when the dictionary
+	 * is changed. The fields are volatile, so the indexes of a read-only
+	 * dictionary can be built by any reader thread. Concurrent readers
+	 * may build the same index more than once, which is harmless.
+	 */
+
+	private volatile SuffixIndex suffixIndex = null;
+
+	private volatile boolean substringIndexEnabled = false;
+
+	private volatile SubstringIndex substringIndex = null;
+
+	private volatile FeatureIndex featureIndex = null;
+
+	private volatile InflectionIndex inflectionIndex = null;
+
+	private volatile boolean guessingEnabled = false;
+
+	private volatile SuffixGuesser suffixGuesser = null;
+
+	/**
+	 * Maintained while the words are added in ID order, otherwise
+	 * discarded and rebuilt on demand.
+	 */
+	private volatile LexemeTable lexemeTable;
+
+	/** <code>null</code> if the lemmas are not cached. */
+	private volatile LemmaCache lemmaCache = null;
+
+	/** The words by number of word entries. */
+	private final BucketIndex wordsAmbiguity;
+
+	/** The number of words by number of lemmas. */
+	private final AmbiguityHistogram lemmasAmbiguity;
+
+	public BgDictionary() {
+		map = new HashMap<>();
+		gluidMap = new TreeMap<>();
+		widMap = new TreeMap<>();
+		ids = new IdAllocator();
+		lexemeTable = new LexemeTable();
+		wordsAmbiguity = new BucketIndex();
+		lemmasAmbiguity = new AmbiguityHistogram();
+		readOnly = false;
+	}
+
+	/**
+	 * Creates a read-only dictionary, which takes over the content
+	 * of the specified dictionary.
+	 */
+	private BgDictionary(BgDictionary d) {
+		map = d.map;
+		gluidMap = d.gluidMap;
+		widMap = d.widMap;
+		ids = d.ids;
+		lexemeTable = d.lexemeTable;
+		wordsAmbiguity = d.wordsAmbiguity;
+		lemmasAmbiguity = d.lemmasAmbiguity;
+		readOnly = true;
+	}
+
+	/**
+	 * Creates read-only dictionaries. The words are added to the
+	 * builder and {@link #build()} publishes them as a dictionary,
+	 * which can be shared between threads without synchronization.
+	 * A builder can be used by a single thread only.
+	 */
+	public static class Builder {
+		private BgDictionary dict = new BgDictionary();
+
+		/**
+		 * @see BgDictionary#addWord(String, int, int)
+		 */
+		public WordEntry addWord(final String word, int grammLabelUid, int lemmaId) throws Exception {
+			return getDictionary().addWord(word, grammLabelUid, lemmaId);
+		}
+
+		/**
+		 * @see BgDictionary#addWord(WordEntry)
+		 */
+		public WordEntry addWord(WordEntry entry) throws Exception {
+			return getDictionary().addWord(entry);
+		}
+
+		/**
+		 * @see BgDictionary#addWord(WordEntry, boolean)
+		 */
+		public WordEntry addWord(WordEntry entry, boolean duplicateCheck) throws Exception {
+			return getDictionary().addWord(entry, duplicateCheck);
+		}
+
+		/**
+		 * @see BgDictionary#importFromFile(String)
+		 */
+		public Builder importFromFile(String file) throws Exception {
+			getDictionary().importFromFile(file);
+			return this;
+		}
+
+		/**
+		 * @see BgDictionary#importFromStream(InputStream)
+		 */
+		public Builder importFromStream(InputStream stream) throws Exception {
+			getDictionary().importFromStream(stream);
+			return this;
+		}
+
+		/**
+		 * @see BgDictionary#importFromStream(InputStream, ForkJoinPool)
+		 */
+		public Builder importFromStream(InputStream stream, ForkJoinPool pool) throws Exception {
+			getDictionary().importFromStream(stream, pool);
+			return this;
+		}
+
+		/**
+		 * @see BgDictionary#importLemmasFromFile(String)
+		 */
+		public Builder importLemmasFromFile(String file) throws Exception {
+			getDictionary().importLemmasFromFile(file);
+			return this;
+		}
+
+		/**
+		 * @see BgDictionary#readFromFile(String)
+		 */
+		public Builder readFromFile(String file) throws Exception {
+			getDictionary().readFromFile(file);
+			return this;
+		}
+
+		/**
+		 * Returns a read-only dictionary with the words added to this
+		 * builder. The builder can't be used after this method is called.
+		 */
+		public BgDictionary build() {
+			BgDictionary d = getDictionary();
+			dict = null;
+
+			// the maps are taken over without copying
+			return new BgDictionary(d);
+		}
+
+		private BgDictionary getDictionary() {
+			if(dict == null) {
+				throw new IllegalStateException(i18n().getError("BgDictionary.Builder.built"));
+			}
+
+			return dict;
+		}
+	}
+
+	/**
+	 * Determines whether this dictionary is read-only.
+	 * @see Builder
+	 */
+	public boolean isReadOnly() { return readOnly; }
+
+	private void checkWritable() {
+		if(readOnly) {
+			throw new UnsupportedOperationException(i18n().getError("BgDictionary.readOnly"));
+		}
+	}
 
 	/**
 	 * Note that for the dictionary to be consistent and to work properly,
 	 * the words need to be added in specific order - first the lemma,
 	 * followed by all word forms.
+	 * The word entry gets the next word ID of this dictionary.
 	 * @param word
 	 * @param grammLabelUid
 	 * @param lemmaId The ID of the lemma, which represents this
@@ -214,13 +395,33 @@ public class BgDictionary {
 	 * <code>null</code> if word duplication is detected.
 	 */
 	public WordEntry addWord(final String word, int grammLabelUid, int lemmaId) throws Exception {
-		return addWord(new WordEntry(word, lemmaId, grammLabelUid));
+		return addWord(newWordEntry(word, lemmaId, grammLabelUid));
+	}
+
+	/**
+	 * Creates a word entry with the next word ID of this dictionary.
+	 * The ID is allocated when the entry is added, so no ID is lost
+	 * if the entry turns out to be a duplicate.
+	 */
+	private WordEntry newWordEntry(String word, int lemmaId, int grammLabelUid) {
+		return new WordEntry(word, ids.getLast() + 1, lemmaId, grammLabelUid);
 	}
 
+	/**
+	 * Returns the largest word ID allocated by this dictionary, or zero.
+	 * The IDs of the words in this dictionary are in the range
+	 * <code>[1, getMaxWordId()]</code>, so they can be used as
+	 * indexes in arrays.
+	 */
+	public int getMaxWordId() { return ids.getLast(); }
+
 	/**
 	 * Note that for the dictionary to be consistent and to work properly,
 	 * the words need to be added in specific order - first the lemma,
 	 * followed by all word forms.
+	 * An entry created by the public constructor of {@link WordEntry}
+	 * gets the next word ID of this dictionary when it is added, so its
+	 * word forms need to be created after that.
 	 * @param entry The word entry to add.
 	 * @return Returns the same word entry if added, or
 	 * <code>null</code> if word duplication is detected.
@@ -230,14 +431,18 @@ public class BgDictionary {
 	}
 
 	private boolean addWordToMap(WordEntry entry, boolean duplicateCheck) {
-		TreeSet<WordEntry> entryList = map.get(entry.word);
+		WordBucket entryList = map.get(entry.word);
 		boolean newWord = true;
 
 		if(entryList == null) { // if no such word in the map
-			entryList = new TreeSet<>();
+			entryList = new WordBucket();
 
 			entryList.add(entry);
+			entryList.lemmaCount = 1;
 			map.put(entry.word, entryList);
+
+			wordsAmbiguity.add(entryList);
+			lemmasAmbiguity.move(0, 1);
 		} else {
 			if(duplicateCheck) {
 				for(WordEntry e : entryList) {
@@ -253,7 +458,18 @@ public class BgDictionary {
 				}
 			}
 
-			if(newWord) entryList.add(entry);
+			if(newWord) {
+				boolean newLemma = !containsLemma(entryList, getLemmaId(entry));
+
+				wordsAmbiguity.remove(entryList, entryList.size());
+				entryList.add(entry);
+				wordsAmbiguity.add(entryList);
+
+				if(newLemma) {
+					int lemmas = entryList.lemmaCount++;
+					lemmasAmbiguity.move(lemmas, lemmas + 1);
+				}
+			}
 		}
 
 		return newWord;
@@ -293,6 +509,9 @@ public class BgDictionary {
 	 * Note that for the dictionary to be consistent and to work properly,
 	 * the words need to be added in specific order - first the lemma,
 	 * followed by all word forms.
+	 * The ID of the word entry is kept and the IDs up to it are
+	 * considered allocated by this dictionary, except for an entry
+	 * without an ID, which gets the next word ID of this dictionary.
 	 * @param entry The word entry to add.
 	 * @param duplicateCheck If <code>true</code> checks whether the
 	 * word is already added. If word duplication is detected, the word is not
@@ -300,19 +519,232 @@ public class BgDictionary {
 	 * costly operation.
 	 * @return Returns the same word entry if added, or
 	 * <code>null</code> if word duplication is detected.
+	 * @throws IllegalArgumentException if another word entry with the
+	 * same ID is already in this dictionary, or if the entry is a word
+	 * form created before its lemma was added.
+	 * @see WordEntry#WordEntry(String, int, int)
 	 */
 	public WordEntry addWord(WordEntry entry, boolean duplicateCheck) throws Exception {
+		checkWritable();
+
+		int originalId = entry.id;
+		if(originalId < 0) {
+			if(entry.lemmaId < -1) {
+				String err = i18n().getError("BgDictionary.lemmaNotAdded", entry.word);
+				throw new IllegalArgumentException(err);
+			}
+
+			entry.id = ids.getLast() + 1;
+		}
+
+		WordEntry e = widMap.get(entry.id);
+		if(e != null && e != entry) {
+			String err = i18n().getError("BgDictionary.duplicateId", String.valueOf(entry.id), entry.word);
+			throw new IllegalArgumentException(err);
+		}
+
 		boolean newWord = addWordToMap(entry, duplicateCheck);
 
 		addWordToGluidMap(entry, newWord, duplicateCheck);
 
-		if(newWord) widMap.put(entry.id, entry);
+		if(newWord) {
+			widMap.put(entry.id, entry);
+			ids.allocated(entry.id);
+
+			LexemeTable t = lexemeTable;
+			if(t != null && !t.append(entry)) lexemeTable = null;
+
+			dictionaryChanged();
+		}
+
+		if(!newWord) entry.id = originalId;
 
 		return newWord ? entry : null;
 	}
 
+	/**
+	 * Applies the specified patch to this dictionary. The removed and
+	 * the changed lexemes are removed first, then the added and the
+	 * changed lexemes are added with new word IDs. The time needed is
+	 * proportional to the size of the patch, but the indexes built on
+	 * demand are discarded.
+	 * @throws IllegalArgumentException if a lexeme removed by the patch
+	 * is not found in this dictionary. In this case the dictionary is
+	 * not changed.
+	 * @see BgDictionaryPatch#create
+	 */
+	public void applyPatch(BgDictionaryPatch patch) throws Exception {
+		checkWritable();
+
+		// find all lexemes before changing the dictionary,
+		// because the ranks refer to the original dictionary
+		ArrayList<Lexeme> removed = new ArrayList<>();
+
+		for(int i = 0; i < patch.getRemovedCount(); i++) {
+			String word = patch.removedWords.get(i);
+			Lexeme l = findLexeme(word, patch.removedGluids.get(i), patch.removedRanks.get(i));
+
+			if(l == null) {
+				String err = i18n().getError("BgDictionary.patchMismatch", word);
+				throw new IllegalArgumentException(err);
+			}
+
+			removed.add(l);
+		}
+
+		for(Lexeme l : removed) removeLexeme(l);
+
+		for(int i = 0; i < patch.getAddedCount(); i++) {
+			String[] words = patch.addedWords.get(i);
+			int[] gluids = patch.addedGluids.get(i);
+
+			WordEntry lemma = addWord(newWordEntry(words[0], -1, gluids[0]), false);
+			for(int j = 1; j < words.length; j++) {
+				addWord(newWordEntry(words[j], lemma.id, gluids[j]), false);
+			}
+		}
+	}
+
+	/**
+	 * Returns the lexeme with the specified lemma and grammatical
+	 * label UID, which is preceded by <code>rank</code> lexemes with
+	 * the same lemma and grammatical label UID, or <code>null</code>
+	 * if there is no such lexeme.
+	 */
+	private Lexeme findLexeme(String lemma, int gluid, int rank) {
+		TreeSet<WordEntry> words = map.get(lemma);
+		if(words == null) return null;
+
+		for(WordEntry w : words) {
+			if(!w.isLemma() || w.grammLabelUid != gluid) continue;
+			if(rank-- == 0) return getLexeme(w);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Removes the words of the specified lexeme from this dictionary.
+	 */
+	private void removeLexeme(Lexeme l) {
+		LexemeTable t = lexemeTable;
+
+		if(t != null) {
+			t.remove(l.lemma.id);
+			// rebuild the table when most of it is garbage
+			if(t.getRemovedCount() > t.getLexemeCount() / 2) lexemeTable = null;
+		}
+
+		removeWord(l.lemma);
+		for(WordEntry we : l.forms) removeWord(we);
+
+		dictionaryChanged();
+	}
+
+	/**
+	 * Discards the indexes and the cached lemmas,
+	 * after the content of this dictionary is changed.
+	 */
+	private void dictionaryChanged() {
+		suffixIndex = null;
+		substringIndex = null;
+		featureIndex = null;
+		inflectionIndex = null;
+		suffixGuesser = null;
+
+		LemmaCache c = lemmaCache;
+		if(c != null) c.clear();
+	}
+
+	private void removeWord(WordEntry we) {
+		WordBucket bucket = map.get(we.word);
+
+		if(bucket != null && bucket.contains(we)) {
+			wordsAmbiguity.remove(bucket, bucket.size());
+			bucket.remove(we);
+
+			if(!containsLemma(bucket, getLemmaId(we))) {
+				int lemmas = bucket.lemmaCount--;
+				lemmasAmbiguity.move(lemmas, lemmas - 1);
+			}
+
+			if(bucket.isEmpty()) map.remove(we.word);
+			else wordsAmbiguity.add(bucket);
+		}
+
+		TreeSet<WordEntry> words = gluidMap.get(we.grammLabelUid);
+		if(words != null && words.remove(we) && words.isEmpty()) gluidMap.remove(we.grammLabelUid);
+
+		widMap.remove(we.id);
+	}
+
+	/**
+	 * Returns the ID of the lemma of the specified word entry.
+	 */
+	private static int getLemmaId(WordEntry we) {
+		return we.isLemma() ? we.id : we.lemmaId;
+	}
+
+	private static boolean containsLemma(TreeSet<WordEntry> entries, int lemmaId) {
+		for(WordEntry we : entries) {
+			if(getLemmaId(we) == lemmaId) return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns the number of different lemmas of the specified entries.
+	 */
+	private static int getLemmaCount(TreeSet<WordEntry> entries) {
+		int[] ids = new int[entries.size()];
+		int n = 0;
+		for(WordEntry we : entries) ids[n++] = getLemmaId(we);
+
+		Arrays.sort(ids);
+
+		int count = 0;
+		for(int i = 0; i < n; i++) {
+			if(i == 0 || ids[i] != ids[i - 1]) count++;
+		}
+
+		return count;
+	}
+
+	/**
+	 * Recomputes the lemma counts and the ambiguity statistics from scratch.
+	 */
+	private void updateAmbiguityStats() {
+		wordsAmbiguity.clear();
+		lemmasAmbiguity.clear();
+
+		for(WordBucket entries : map.values()) {
+			entries.lemmaCount = getLemmaCount(entries);
+			wordsAmbiguity.add(entries);
+			lemmasAmbiguity.move(0, entries.lemmaCount);
+		}
+	}
+
 	public int size() { return map.size(); }
 
+	/**
+	 * Creates a compact, immutable snapshot of the current content
+	 * of this dictionary. Subsequent changes to this dictionary are not
+	 * reflected in the returned snapshot.
+	 */
+	public BgDictionarySnapshot freeze() {
+		return new BgDictionarySnapshot(widMap.values());
+	}
+
+	/**
+	 * Creates an immutable lexicon with the lexemes of this dictionary,
+	 * in which the lexemes are stored as lemmas and paradigms and the
+	 * word forms are generated on demand.
+	 */
+	public ParadigmLexicon toParadigmLexicon() {
+		return ParadigmLexicon.create(lexemes());
+	}
+
 	public int getTokenCount() { return widMap.size(); }
 
 	/**
@@ -332,6 +764,7 @@ public class BgDictionary {
 	 */
 	public WordEntry findLemma(String lemma, int gluid) {
 		TreeSet<WordEntry> words = map.get(lemma);
+		if(words == null) return null;
 
 		for(WordEntry w : words) {
 			if(w.isLemma() && w.grammLabelUid == gluid) return w;
@@ -355,19 +788,33 @@ public class BgDictionary {
 	 * An empty array is returned if no lemmas are found.
 	 * @param tag If not <code>null</code>, words with different tags
 	 * (in terms of {@link BTBUtils#differentTags}) are ignored.
+	 * @see #guessLemmas(String, String)
 	 */
 	public WordEntry[] findLemmas(String wordForm, String tag) {
+		LemmaCache c = lemmaCache;
+		if(c == null) return lookupLemmas(wordForm, tag);
+
+		TokenKey key = new TokenKey(wordForm, tag);
+		WordEntry[] lemmas = c.get(key);
+
+		if(lemmas == null) {
+			lemmas = lookupLemmas(wordForm, tag);
+			c.put(key, lemmas);
+		}
+
+		return lemmas.length == 0 ? lemmas : lemmas.clone();
+	}
+
+	private WordEntry[] lookupLemmas(String wordForm, String tag) {
 		//if(wordForm.startsWith("най-"))
 
 		TreeSet<WordEntry> words = map.get(wordForm);
 		if(words == null) return new WordEntry[0];
 		ArrayList<WordEntry> lemmas = new ArrayList<>();
+		TagPattern p = tag == null ? null : TagPattern.compile(tag);
 
 		for(WordEntry w : words) {
-			if(tag != null) {
-				String tag2 = BTBUtils.getTag(w.grammLabelUid);
-				if(BTBUtils.differentTags(tag, tag2)) continue;
-			}
+			if(p != null && !p.matches(w.grammLabelUid)) continue;
 
 			int wid = w.isLemma() ? w.id : w.lemmaId;
 
@@ -389,6 +836,243 @@ public class BgDictionary {
 		return  lemmas.toArray(new WordEntry[0]);
 	}
 
+	/**
+	 * Receives the lemmas found by {@link #lemmatize}.
+	 */
+	public interface LemmaSink {
+		/**
+		 * @param token The index of the token.
+		 * @param lemmas The lemmas of the token are the first
+		 * <code>count</code> elements of this array. The array is reused
+		 * and its content is valid only during this call.
+		 * @param count The number of lemmas found.
+		 */
+		void lemmas(int token, WordEntry[] lemmas, int count);
+
+		/**
+		 * Called after {@link #lemmas} with no lemmas found, if guessing
+		 * is enabled and the guesser has analyses for the token.
+		 * @param guesses The guessed analyses, the most probable first.
+		 * @see BgDictionary#setGuessingEnabled
+		 */
+		default void guesses(int token, SuffixGuesser.Guess[] guesses) { }
+	}
+
+	/**
+	 * Finds the lemmas of all specified tokens, like
+	 * {@link #findLemmas(String, String)}, and passes them to the
+	 * specified sink in token order. Repeated tokens with the same tag
+	 * are looked up only once per call.
+	 * @param tags The tags of the tokens, or <code>null</code>.
+	 * Tokens with <code>null</code> tags are not filtered by tag.
+	 */
+	public void lemmatize(CharSequence[] tokens, String[] tags, LemmaSink sink) {
+		// the distinct tags and their compiled patterns; zero is no tag
+		HashMap<String, Integer> tagIds = new HashMap<>();
+		ArrayList<TagPattern> patterns = new ArrayList<>();
+		patterns.add(null);
+
+		// an open-addressing hash table of the distinct tokens, which
+		// compares the characters of the tokens without copying them
+		int[] slots = new int[Integer.highestOneBit(Math.max(16, tokens.length)) * 4];
+		int[] firsts = new int[16]; // the first occurrence of each distinct token
+		int[] tokenTags = new int[16];
+
+		// the lemmas of each distinct token are stored contiguously
+		WordEntry[] lemmas = new WordEntry[Math.max(16, tokens.length)];
+		int[] offsets = new int[16];
+		int[] counts = new int[16];
+		SuffixGuesser.Guess[][] guesses = new SuffixGuesser.Guess[16][];
+		int distinct = 0, size = 0;
+
+		SuffixGuesser guesser = guessingEnabled ? getSuffixGuesser() : null;
+
+		WordEntry[] buf = new WordEntry[16];
+
+		for(int t = 0; t < tokens.length; t++) {
+			CharSequence token = tokens[t];
+			String tag = tags == null ? null : tags[t];
+
+			int tagId = 0;
+			if(tag != null) {
+				Integer id = tagIds.get(tag);
+				if(id == null) {
+					id = patterns.size();
+					tagIds.put(tag, id);
+					patterns.add(TagPattern.compile(tag));
+				}
+
+				tagId = id;
+			}
+
+			int mask = slots.length - 1;
+			int slot = (hash(token) * 31 + tagId) & mask;
+			int idx = -1;
+
+			for(; slots[slot] != 0; slot = (slot + 1) & mask) {
+				int d = slots[slot] - 1;
+				if(tokenTags[d] == tagId && contentEquals(tokens[firsts[d]], token)) {
+					idx = d;
+					break;
+				}
+			}
+
+			if(idx == -1) {
+				if(distinct == offsets.length) {
+					offsets = Arrays.copyOf(offsets, distinct * 2);
+					counts = Arrays.copyOf(counts, distinct * 2);
+					guesses = Arrays.copyOf(guesses, distinct * 2);
+					firsts = Arrays.copyOf(firsts, distinct * 2);
+					tokenTags = Arrays.copyOf(tokenTags, distinct * 2);
+				}
+
+				String word = token.toString();
+				int start = size;
+				TreeSet<WordEntry> words = map.get(word);
+				TagPattern p = patterns.get(tagId);
+
+				for(WordEntry w : words == null ? Collections.<WordEntry>emptySet() : words) {
+					if(p != null && !p.matches(w.grammLabelUid)) continue;
+
+					int wid = getLemmaId(w);
+
+					// two word forms from the same lexeme can be equal
+					boolean dup = false;
+					for(int i = start; i < size && !dup; i++) dup = lemmas[i].id == wid;
+					if(dup) continue;
+
+					if(size == lemmas.length) lemmas = Arrays.copyOf(lemmas, size * 2);
+					lemmas[size++] = w.isLemma() ? w : widMap.get(w.lemmaId);
+				}
+
+				offsets[distinct] = start;
+				counts[distinct] = size - start;
+				if(guesser != null && size == start) guesses[distinct] = guesser.guess(word, p);
+
+				firsts[distinct] = t;
+				tokenTags[distinct] = tagId;
+				idx = distinct++;
+				slots[slot] = distinct;
+			}
+
+			int count = counts[idx];
+			if(count > buf.length) buf = new WordEntry[Math.max(count, buf.length * 2)];
+			System.arraycopy(lemmas, offsets[idx], buf, 0, count);
+
+			sink.lemmas(t, buf, count);
+
+			SuffixGuesser.Guess[] g = guesses[idx];
+			if(g != null && g.length > 0) sink.guesses(t, g.clone());
+		}
+	}
+
+	/** Returns the same hash code as <code>String.hashCode</code>. */
+	private static int hash(CharSequence s) {
+		if(s instanceof String) return s.hashCode();
+
+		int h = 0;
+		for(int i = 0; i < s.length(); i++) h = 31 * h + s.charAt(i);
+		return h;
+	}
+
+	private static boolean contentEquals(CharSequence a, CharSequence b) {
+		if(a == b) return true;
+
+		int n = a.length();
+		if(n != b.length()) return false;
+
+		for(int i = 0; i < n; i++) {
+			if(a.charAt(i) != b.charAt(i)) return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the cache used by {@link #findLemmas(String, String)},
+	 * or <code>null</code> if the lemmas are not cached.
+	 */
+	public LemmaCache getLemmaCache() { return lemmaCache; }
+
+	/**
+	 * Enables a cache of up to <code>size</code> results of
+	 * {@link #findLemmas(String, String)}, or disables it if
+	 * <code>size</code> is zero. The cache is cleared when the
+	 * dictionary is changed. Disabled by default.
+	 * @see LemmaCache
+	 */
+	public void setLemmaCacheSize(int size) {
+		if(size < 0) throw new IllegalArgumentException("size < 0");
+		lemmaCache = size == 0 ? null : new LemmaCache(size);
+	}
+
+	/**
+	 * Guesses the analyses of a word form, which is not in this
+	 * dictionary, from the endings of the known word forms.
+	 * The guessed lemmas are not looked up in the dictionary.
+	 * @param tag If not <code>null</code>, only analyses matching
+	 * this tag pattern are returned.
+	 * @return The guessed analyses, the most probable first,
+	 * or an empty array if the ending of the word is not known.
+	 * @see #getSuffixGuesser()
+	 */
+	public SuffixGuesser.Guess[] guessLemmas(String wordForm, String tag) {
+		TagPattern p = tag == null ? null : TagPattern.compile(tag);
+		return getSuffixGuesser().guess(wordForm, p);
+	}
+
+	/**
+	 * Returns the guesser of the analyses of unknown words trained on
+	 * this dictionary. It is built on first use in one pass over the
+	 * lexemes, so it can be built at load time by calling this method,
+	 * and is rebuilt after the dictionary is changed.
+	 */
+	public SuffixGuesser getSuffixGuesser() {
+		SuffixGuesser g = suffixGuesser;
+		if(g == null) suffixGuesser = g = new SuffixGuesser(lexemes());
+		return g;
+	}
+
+	/**
+	 * Determines whether {@link #lemmatize} guesses the
+	 * analyses of the tokens, which are not in this dictionary.
+	 */
+	public boolean isGuessingEnabled() { return guessingEnabled; }
+
+	/**
+	 * Enables or disables the guessing of the analyses of the tokens,
+	 * which are not in this dictionary, by {@link #lemmatize}. The guesses
+	 * are passed to {@link LemmaSink#guesses}. Disabled by default.
+	 * @see #getSuffixGuesser()
+	 */
+	public void setGuessingEnabled(boolean b) {
+		guessingEnabled = b;
+	}
+
+	/** A token with an optional tag. */
+	static final class TokenKey {
+		final String token;
+		final String tag;
+
+		TokenKey(String token, String tag) {
+			this.token = token;
+			this.tag = tag;
+		}
+
+		@Override
+		public int hashCode() {
+			return token.hashCode() * 31 + (tag == null ? 0 : tag.hashCode());
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof TokenKey)) return false;
+
+			TokenKey k = (TokenKey)obj;
+			return token.equals(k.token) && Objects.equals(tag, k.tag);
+		}
+	}
+
 	public WordEntry[] getLemmas(String lemma) {
 		TreeSet<WordEntry> words = map.get(lemma);
 		if(words == null) return new WordEntry[0];
@@ -413,6 +1097,65 @@ public class BgDictionary {
 		return lexemes;
 	}
 
+	/**
+	 * Returns the word forms of the specified lemma, which match the
+	 * specified search query, e.g. the definite plural of a noun.
+	 * The lemma itself is included if it matches. The forms are looked
+	 * up in an index, which is built on first use and rebuilt after the
+	 * dictionary is changed, so the time needed doesn't depend on the
+	 * number of word forms of the lemma.
+	 * @return The matching word forms in lexeme order, or an empty array.
+	 * @throws IllegalArgumentException if the specified word entry is not
+	 * a lemma from this dictionary or if it is not a lemma at all.
+	 */
+	public WordEntry[] inflect(WordEntry lemma, SearchQuery q) {
+		InflectionIndex idx = getInflectionIndex();
+		checkLemma(idx, lemma);
+
+		q.compile();
+		return idx.find(lemma.id, idx.getPositions(q.glId, q.glMask));
+	}
+
+	/**
+	 * Returns the word forms of each of the specified lemmas, which
+	 * match the specified search query. The query is compiled and
+	 * resolved once for all lemmas.
+	 * @return The matching word forms of each lemma.
+	 * @throws IllegalArgumentException if a word entry is not a lemma
+	 * from this dictionary or if it is not a lemma at all.
+	 * @see #inflect(WordEntry, SearchQuery)
+	 */
+	public WordEntry[][] inflect(WordEntry[] lemmas, SearchQuery q) {
+		InflectionIndex idx = getInflectionIndex();
+		for(WordEntry lemma : lemmas) checkLemma(idx, lemma);
+
+		q.compile();
+		int[][] positions = idx.getPositions(q.glId, q.glMask);
+
+		WordEntry[][] res = new WordEntry[lemmas.length][];
+		for(int i = 0; i < lemmas.length; i++) res[i] = idx.find(lemmas[i].id, positions);
+
+		return res;
+	}
+
+	private static void checkLemma(InflectionIndex idx, WordEntry lemma) {
+		if(!lemma.isLemma()) {
+			String s = lemma.toString();
+			throw new IllegalArgumentException(i18n().getError("BgDictionary.notLemma", s));
+		}
+
+		if(!idx.containsLemma(lemma.id)) {
+			String s = lemma.toString();
+			throw new IllegalArgumentException(i18n().getError("BgDictionary.notFromDict", s));
+		}
+	}
+
+	private InflectionIndex getInflectionIndex() {
+		InflectionIndex idx = inflectionIndex;
+		if(idx == null) inflectionIndex = idx = new InflectionIndex(lexemes(), getMaxWordId());
+		return idx;
+	}
+
 	/**
 	 * Finds all lexemes that are present in the specified dictionary
 	 * <code>dict</code> and are missing in this dictionary.
@@ -468,22 +1211,7 @@ public class BgDictionary {
 	 * sets of word forms.
 	 */
 	public boolean compareLexemes(Lexeme l1, Lexeme l2) {
-		if(l1.forms.length != l2.forms.length) return false;
-
-		for(WordEntry we : l1.forms) {
-			boolean found = false;
-
-			for(WordEntry we2 : l2.forms) {
-				if(we.word.equals(we2.word) && we.grammLabelUid == we2.grammLabelUid) {
-					found = true;
-					break;
-				}
-			}
-
-			if(!found) return false;
-		}
-
-		return true;
+		return BgDictionaryDiff.sameForms(l1, l2);
 	}
 
 	/**
@@ -498,23 +1226,21 @@ public class BgDictionary {
 			throw new IllegalArgumentException(i18n().getError("BgDictionary.notLemma", s));
 		}
 
-		ArrayList<WordEntry> words = new ArrayList<>();
+		LexemeTable t = getLexemeTable();
+		int i = t.indexOfLemma(lemma.id);
 
-		if(widMap.get(lemma.id) == null) {
+		if(i == -1) {
 			String s = lemma.toString();
 			throw new IllegalArgumentException(i18n().getError("BgDictionary.notFromDict", s));
 		}
 
-		Entry<Integer, WordEntry> entry = widMap.higherEntry(lemma.id);
-
-		while(entry != null) {
-			if (entry.getValue().isLemma()) break;
-
-			words.add(entry.getValue());
-			entry = widMap.higherEntry(entry.getKey());
-		}
+		return t.getLexeme(i);
+	}
 
-		return new Lexeme(lemma, words.toArray(new WordEntry[words.size()]));
+	private LexemeTable getLexemeTable() {
+		LexemeTable t = lexemeTable;
+		if(t == null) lexemeTable = t = new LexemeTable(widMap.values());
+		return t;
 	}
 
 	public ArrayList<WordEntry> find(String s, SearchQuery q) {
@@ -539,6 +1265,18 @@ public class BgDictionary {
 
 		q.compile();
 
+		if(substringIndexEnabled) {
+			for(WordEntry we : findBySubstringIndex(s)) {
+				if((we.grammLabelUid & q.glMask) != q.glId) continue;
+				if(m != gluidMap && !m.containsKey(we.grammLabelUid)) continue;
+				res.add(we);
+			}
+
+			// same order as when iterating the grammatical labels
+			res.sort(Comparator.comparingInt((WordEntry we) -> we.grammLabelUid).thenComparingInt(we -> we.id));
+			return res;
+		}
+
 		if(exactMatch) {
 			for(TreeSet<WordEntry> entries : m.values()) {
 				// entries can't be empty and all GLUIDs in the entries set are equal
@@ -564,8 +1302,15 @@ public class BgDictionary {
 
 	/**
 	 * Returns a list of all words containing the specified string.
+	 * @see #setSubstringIndexEnabled
 	 */
 	public ArrayList<WordEntry> find(String s) {
+		if(substringIndexEnabled) {
+			ArrayList<WordEntry> res = findBySubstringIndex(s);
+			res.sort(null);
+			return res;
+		}
+
 		ArrayList<WordEntry> res = new ArrayList<>();
 
 		for(WordEntry we : widMap.values()) {
@@ -575,17 +1320,64 @@ public class BgDictionary {
 		return res;
 	}
 
+	/**
+	 * Returns all words containing the specified string (in no particular order).
+	 */
+	private ArrayList<WordEntry> findBySubstringIndex(String s) {
+		SubstringIndex idx = substringIndex;
+		if(idx == null) substringIndex = idx = new SubstringIndex(map.keySet());
+
+		ArrayList<WordEntry> res = new ArrayList<>();
+		for(int w : idx.find(s)) res.addAll(map.get(idx.getWord(w)));
+
+		return res;
+	}
+
+	/**
+	 * Determines whether the substring searches use a trigram index.
+	 */
+	public boolean isSubstringIndexEnabled() { return substringIndexEnabled; }
+
+	/**
+	 * Enables or disables the trigram index used by the substring
+	 * searches ({@link #find(String)} and the non-exact
+	 * {@link #find(String, boolean, GrammaticalLabel.LexicalClass, SearchQuery)}).
+	 * The index is built on first use and rebuilt after the dictionary
+	 * is changed. Strings shorter than three characters have no trigrams
+	 * and are still found by scanning all words. Disabled by default
+	 * because of its memory footprint.
+	 */
+	public void setSubstringIndexEnabled(boolean b) {
+		substringIndexEnabled = b;
+		if(!b) substringIndex = null;
+	}
+
 	/**
 	 * Returns a list of all words that ends with the specified string.
 	 */
 	public ArrayList<WordEntry> endsWith(String suffix) {
-		ArrayList<WordEntry> res = new ArrayList<>();
+		return endsWith(suffix, null, null);
+	}
 
-		for(WordEntry we : widMap.values()) {
-			if(we.word.endsWith(suffix)) res.add(we);
-		}
+	/**
+	 * Returns a list of all words that ends with the specified string
+	 * and match the specified lexical class and search query.
+	 * The words are looked up in a suffix index, which is built on
+	 * first use and rebuilt after the dictionary is changed.
+	 * @param c If not <code>null</code>, only words from this lexical
+	 * class are included.
+	 * @param q If not <code>null</code>, only words matching this query
+	 * are included.
+	 */
+	public ArrayList<WordEntry> endsWith (
+		String suffix, GrammaticalLabel.LexicalClass c, SearchQuery q
+	) {
+		if(q != null) q.compile();
 
-		return res;
+		SuffixIndex idx = suffixIndex;
+		if(idx == null) suffixIndex = idx = new SuffixIndex(widMap.values());
+
+		return idx.find(suffix, c, q);
 	}
 
 	/**
@@ -608,6 +1400,8 @@ public class BgDictionary {
 	public ArrayList<WordEntry> findExactMatches (
 		String s, final GrammaticalLabel.LexicalClass c, SearchQuery q
 	) {
+		if(q != null) q.compile();
+
 		ArrayList<WordEntry> res = new ArrayList<>();
 
 		TreeSet<WordEntry> words = map.get(s);
@@ -618,7 +1412,7 @@ public class BgDictionary {
 				continue;
 			}
 
-			if((we.grammLabelUid & q.glMask) != q.glId) continue;
+			if(q != null && (we.grammLabelUid & q.glMask) != q.glId) continue;
 
 			res.add(we);
 		}
@@ -626,6 +1420,28 @@ public class BgDictionary {
 		return res;
 	}
 
+	/**
+	 * Returns all word entries matching the specified lexical class
+	 * and search query in ID order, e.g. all feminine definite plural
+	 * adjectives. The entries are looked up in bitmap indexes of the
+	 * grammatical features, which are built on first use and rebuilt
+	 * after the dictionary is changed.
+	 * @param c If not <code>null</code>, only words from this lexical
+	 * class are included.
+	 * @param q If not <code>null</code>, only words matching this query
+	 * are included.
+	 */
+	public Iterator<WordEntry> findByFeatures (
+		GrammaticalLabel.LexicalClass c, SearchQuery q
+	) {
+		if(q != null) q.compile();
+
+		FeatureIndex idx = featureIndex;
+		if(idx == null) featureIndex = idx = new FeatureIndex(widMap.values());
+
+		return q == null ? idx.find(c, 0, 0) : idx.find(c, q.glId, q.glMask);
+	}
+
 	public int getLemmaCount() {
 		int i = 0;
 
@@ -648,27 +1464,54 @@ public class BgDictionary {
 	}
 
 	public void printAllWords() {
-		/*for(TreeSet<WordEntry> set : map.values()) {
-			for(WordEntry e : set) {
-				System.out.println(e.toString());
-			}
-		}*/
+		Writer out = newSystemOutWriter();
+		try {
+			writeAllWords(out);
+			out.flush();
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
 
+	/**
+	 * Writes all word entries, one per line, to the specified output.
+	 * Wrap unbuffered outputs in a {@link java.io.BufferedWriter}.
+	 * @see WordEntryFormatter
+	 */
+	public void writeAllWords(Appendable out) throws IOException {
 		for(WordEntry we : widMap.values()) {
-			System.out.println(we.toString());
+			WordEntryFormatter.println(we, out);
 		}
 	}
 
 	public void printAllWordsByGrammType() {
+		Writer out = newSystemOutWriter();
+		try {
+			writeAllWordsByGrammType(out);
+			out.flush();
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Writes all word entries grouped by grammar type to the specified
+	 * output. Each group starts with an empty line and the grammar type.
+	 * Wrap unbuffered outputs in a {@link java.io.BufferedWriter}.
+	 * @see WordEntryFormatter
+	 */
+	public void writeAllWordsByGrammType(Appendable out) throws IOException {
+		final String nl = System.lineSeparator();
+
 		int t = BgGrammarType.getTypeId("1");
 		while(t != -1) {
 			 SortedMap<Integer, TreeSet<WordEntry>> map = getWordsByGrammTypeId(t);
 			 if(!map.isEmpty()) {
-				System.out.println();
-				System.out.println(BgGrammarType.getTypeById(t));
+				out.append(nl);
+				out.append(String.valueOf(BgGrammarType.getTypeById(t))).append(nl);
 				for(TreeSet<WordEntry> ts : map.values()) {
 					for(WordEntry we : ts) {
-						System.out.println(we.toString());
+						WordEntryFormatter.println(we, out);
 					}
 				}
 			 }
@@ -677,6 +1520,14 @@ public class BgDictionary {
 		}
 	}
 
+	/**
+	 * Returns a buffered writer to the standard output, which should be
+	 * flushed but not closed.
+	 */
+	private static Writer newSystemOutWriter() {
+		return new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
+	}
+
 	public SortedMap<Integer, TreeSet<WordEntry>> getWordsByGrammType(String type) {
 		return getWordsByGrammTypeId(BgGrammarType.getTypeId(type));
 	}
@@ -729,44 +1580,17 @@ public class BgDictionary {
 		}
 	}
 
+	/**
+	 * Imports the lemmas from the specified file, in which each lemma
+	 * is followed by its grammatical label UID on a separate line.
+	 * The file is mapped into memory and parsed directly from bytes.
+	 */
 	public void importLemmasFromFile(String file) throws Exception {
-		File f = new File(file);
-		if(!f.exists() || !f.isFile() || !f.canRead()) {
-			String s = f.getAbsolutePath();
-			String err = i18n().getError("BgDictionary.invalidFile", s);
-			throw new IllegalArgumentException(err);
-		}
-
-		BufferedReader reader;
-
-		try {
-			InputStreamReader r
-				= new InputStreamReader(new FileInputStream(f), "UTF-8");
-			reader = new BufferedReader(r);
-		} catch(Exception e) {
-			String s = f.getAbsolutePath();
-			String err = i18n().getError("BgDictionary.cantReadFile", s);
-			throw new IllegalArgumentException(err, e);
-		}
-
-		try {
-			String line = reader.readLine();
-			while(line != null) {
-				String gluid = reader.readLine();
-				if(gluid == null) {
-					System.err.println("Invalid file format!");
-					break;
-				}
+		File f = getReadableFile(file);
+		LexemeParser.Chunk chunk = LexemeParser.parseLemmas(mapFile(f));
 
-				WordEntry e = addWord(line, Integer.parseInt(gluid), -1);
-
-				line = reader.readLine();
-			}
-		} catch(IOException e) {
-			e.printStackTrace();
-		} finally {
-			try { reader.close(); }
-			catch(Exception e) { e.printStackTrace(); }
+		for(int i = 0; i < chunk.size; i++) {
+			addWord(chunk.words[i], chunk.gluids[i], -1);
 		}
 	}
 
@@ -800,28 +1624,24 @@ public class BgDictionary {
 		}
 	}
 
+	/**
+	 * Writes this dictionary to the specified file in the binary
+	 * dictionary format.
+	 * @see MappedBgDictionary
+	 */
 	public void writeToFile(String file) {
-		File f = new File(file);
-		FileOutputStream fos = null;
-		ObjectOutputStream out = null;
-
 		try {
-			fos = new FileOutputStream(f);
-			out = new ObjectOutputStream(fos);
-
-			out.writeObject(map);
-			out.writeObject(gluidMap);
-			out.writeObject(widMap);
+			freeze().writeToFile(file);
 		} catch(IOException e) {
 			e.printStackTrace();
-		} finally {
-			try {
-				if(out != null) out.close();
-				if(fos != null) fos.close();
-			} catch(Exception e) { e.printStackTrace(); }
 		}
 	}
 
+	/**
+	 * Replaces the content of this dictionary with the content of the
+	 * specified file. Both the binary dictionary format and the legacy
+	 * Java serialization format are supported.
+	 */
 	public void readFromFile(String file) throws Exception {
 		File f = new File(file);
 		if(!f.exists() || !f.isFile() || !f.canRead()) {
@@ -830,6 +1650,26 @@ public class BgDictionary {
 			throw new IllegalArgumentException(err);
 		}
 
+		checkWritable();
+
+		if(MappedBgDictionary.isBinaryFile(f)) {
+			map.clear();
+			gluidMap.clear();
+			widMap.clear();
+			ids.reset();
+			lexemeTable = new LexemeTable();
+			wordsAmbiguity.clear();
+			lemmasAmbiguity.clear();
+			dictionaryChanged();
+
+			for(Lexeme l : MappedBgDictionary.open(file).lexemes()) {
+				addWord(l.lemma, false);
+				for(WordEntry we : l.forms) addWord(we, false);
+			}
+
+			return;
+		}
+
 		FileInputStream fin = null;
 		ObjectInputStream in = null;
 
@@ -837,9 +1677,27 @@ public class BgDictionary {
 			fin = new FileInputStream(f);
 			in = new ObjectInputStream(fin);
 
-			map = (HashMap<String, TreeSet<WordEntry>>) in.readObject();
-			gluidMap = (TreeMap<Integer, TreeSet<WordEntry>>) in.readObject();
-			widMap = (TreeMap<Integer, WordEntry>) in.readObject();
+			HashMap<String, TreeSet<WordEntry>> m;
+			m = (HashMap<String, TreeSet<WordEntry>>) in.readObject();
+			TreeMap<Integer, TreeSet<WordEntry>> gm;
+			gm = (TreeMap<Integer, TreeSet<WordEntry>>) in.readObject();
+			TreeMap<Integer, WordEntry> wm = (TreeMap<Integer, WordEntry>) in.readObject();
+
+			map.clear();
+			for(Map.Entry<String, TreeSet<WordEntry>> e : m.entrySet()) {
+				WordBucket b = new WordBucket();
+				b.addAll(e.getValue());
+				map.put(e.getKey(), b);
+			}
+			gluidMap.clear();
+			gluidMap.putAll(gm);
+			widMap.clear();
+			widMap.putAll(wm);
+			ids.reset();
+			if(!wm.isEmpty()) ids.allocated(wm.lastKey());
+			lexemeTable = null;
+			updateAmbiguityStats();
+			dictionaryChanged();
 		} catch(IOException e) {
 			e.printStackTrace();
 		} finally {
@@ -850,7 +1708,28 @@ public class BgDictionary {
 		}
 	}
 
+	/**
+	 * Imports the lexemes from the specified file in the text
+	 * dictionary format using the common fork/join pool.
+	 * @see #importFromFile(String, ForkJoinPool)
+	 */
 	public void importFromFile(String file) throws Exception {
+		importFromFile(file, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Imports the lexemes from the specified file in the text
+	 * dictionary format. The file is mapped into memory and parsed
+	 * directly from bytes.
+	 * @see #importFromStream(InputStream, ForkJoinPool)
+	 */
+	public void importFromFile(String file, ForkJoinPool pool) throws Exception {
+		File f = getReadableFile(file);
+		checkWritable();
+		addChunks(LexemeParser.parse(mapFile(f), pool));
+	}
+
+	private static File getReadableFile(String file) {
 		File f = new File(file);
 		if(!f.exists() || !f.isFile() || !f.canRead()) {
 			String s = f.getAbsolutePath();
@@ -858,108 +1737,117 @@ public class BgDictionary {
 			throw new IllegalArgumentException(err);
 		}
 
-		importFromStream(new FileInputStream(f));
+		return f;
 	}
 
-	public void importFromStream(InputStream stream) throws Exception {
-		BufferedReader reader;
-
-		InputStreamReader r = new InputStreamReader(stream, StandardCharsets.UTF_8);
-		reader = new BufferedReader(r);
-
+	private static ByteBuffer mapFile(File f) {
 		try {
-			WordEntry lemma = null;
-
-			String line = reader.readLine();
+			return LexemeParser.map(f);
+		} catch(IOException e) {
+			String s = f.getAbsolutePath();
+			String err = i18n().getError("BgDictionary.cantReadFile", s);
+			throw new IllegalArgumentException(err, e);
+		}
+	}
 
-			while(line != null) {
-				if(line.isEmpty()) {
-					String word = reader.readLine();
-					line = reader.readLine();
-					if(line == null) {
-						if(word == null || word.isEmpty()) break;
-						System.err.println("Invalid file format");
-						break;
-					}
+	/**
+	 * Imports the lexemes from the specified stream in the text
+	 * dictionary format using the common fork/join pool.
+	 * @see #importFromStream(InputStream, ForkJoinPool)
+	 */
+	public void importFromStream(InputStream stream) throws Exception {
+		importFromStream(stream, ForkJoinPool.commonPool());
+	}
 
-					WordEntry we;
-					we = new WordEntry(word, -1, Integer.parseInt(line));
-					//lemma = addWord(word, Integer.parseInt(line), -1);
-					lemma = addWord(we, false);
-					line = reader.readLine();
-					continue;
-				}
+	/**
+	 * Imports the lexemes from the specified stream in the text
+	 * dictionary format. The input is split in chunks at the lexeme
+	 * boundaries, which are parsed in parallel using the specified pool.
+	 * The parsed words are then added in input order, so the word IDs
+	 * are the same as if the input was parsed sequentially, and each
+	 * lemma is followed by its word forms.
+	 */
+	public void importFromStream(InputStream stream, ForkJoinPool pool) throws Exception {
+		checkWritable();
 
-				String gluid = reader.readLine();
-				if(gluid == null) {
-					System.err.println("Invalid file format!");
-					break;
-				}
+		byte[] data;
 
-				WordEntry we = new WordEntry(line, lemma.id, Integer.parseInt(gluid));
-				addWord(we, false);
-				line = reader.readLine();
-			}
+		try {
+			data = stream.readAllBytes();
 		} catch(IOException e) {
 			e.printStackTrace();
+			return;
 		} finally {
-			try { reader.close(); }
+			try { stream.close(); }
 			catch(Exception e) { e.printStackTrace(); }
 		}
+
+		addChunks(LexemeParser.parse(ByteBuffer.wrap(data), pool));
 	}
 
-	public TreeMap<Integer, Integer> getLemmasAmbiguityStat() {
-		TreeMap<Integer, Integer> las = new TreeMap<>();
+	/**
+	 * Adds the parsed words in input order. A range of word IDs is
+	 * reserved for each chunk, so the IDs are consecutive in input order.
+	 */
+	private void addChunks(ArrayList<LexemeParser.Chunk> chunks) throws Exception {
+		WordEntry lemma = null;
 
-		for(String s : map.keySet()) {
-			int k = findLemmas(s).length;
-			Integer v = las.get(k);
+		for(LexemeParser.Chunk chunk : chunks) {
+			int id = ids.reserve(chunk.size);
 
-			if(v == null) {
-				las.put(k, 1);
-			} else {
-				las.put(k, v + 1);
+			for(int i = 0; i < chunk.size; i++, id++) {
+				if(chunk.lemmas[i]) {
+					lemma = addWord(new WordEntry(chunk.words[i], id, -1, chunk.gluids[i]), false);
+				} else if(lemma == null) {
+					System.err.println("Invalid file format!");
+					return;
+				} else {
+					addWord(new WordEntry(chunk.words[i], id, lemma.id, chunk.gluids[i]), false);
+				}
 			}
+
+			if(chunk.invalid) break;
 		}
+	}
 
-		return las;
+	/**
+	 * Returns a map with the number of lemmas as keys and the number of
+	 * words with that many lemmas as values. The statistics are
+	 * updated as words are added, so this method does not iterate
+	 * the words.
+	 */
+	public TreeMap<Integer, Integer> getLemmasAmbiguityStat() {
+		return lemmasAmbiguity.toMap();
 	}
 
+	/**
+	 * Returns a map with the number of word entries as keys and the
+	 * number of words with that many entries as values. The statistics
+	 * are updated as words are added, so this method does not iterate
+	 * the words.
+	 */
 	public TreeMap<Integer, Integer> getWordsAmbiguityStat() {
-		TreeMap<Integer, Integer> was = new TreeMap<>();
-
-		for(TreeSet<WordEntry> entries : map.values()) {
-			int k = entries.size();
-			Integer v = was.get(k);
-
-			if(v == null) {
-				was.put(k, 1);
-			} else {
-				was.put(k, v + 1);
-			}
-		}
-
-		return was;
+		return wordsAmbiguity.toMap();
 	}
 
+	/**
+	 * Returns the word entries of all words with
+	 * <code>ambiguityCount</code> entries (in no particular order).
+	 * The words are indexed by the number of their entries,
+	 * so this method does not iterate the other words.
+	 */
 	public ArrayList<TreeSet<WordEntry>> getWordsByAmbiguityCount(int ambiguityCount) {
-		ArrayList<TreeSet<WordEntry>> words = new ArrayList<>();
-
-		for(TreeSet<WordEntry> entries : map.values()) {
-			if(entries.size() != ambiguityCount) continue;
-
-			words.add(entries);
-		}
-
-		return words;
+		return wordsAmbiguity.getBuckets(ambiguityCount);
 	}
 
 
 	private class Lemmas implements Iterable<WordEntry>, Iterator<WordEntry> {
-		Entry<Integer, WordEntry> entry;
+		final LexemeTable table;
+		int i;
 
 		private Lemmas() {
-			entry = widMap.firstEntry();
+			table = getLexemeTable();
+			i = table.nextLexeme(0);
 		}
 
 		@Override
@@ -969,24 +1857,16 @@ public class BgDictionary {
 
 		@Override
 		public boolean hasNext() {
-			return entry != null;
+			return i != -1;
 		}
 
 		@Override
 		public WordEntry next() {
-			if(entry == null) throw new NoSuchElementException();
-
-			WordEntry we = entry.getValue();
-
-			entry = widMap.higherEntry(entry.getKey());
-
-			while(entry != null) {
-				if (entry.getValue().isLemma()) break;
-
-				entry = widMap.higherEntry(entry.getKey());
-			}
+			if(!hasNext()) throw new NoSuchElementException();
 
-			return we;
+			WordEntry res = table.getLemma(i);
+			i = table.nextLexeme(i + 1);
+			return res;
 		}
 
 		@Override
@@ -996,10 +1876,12 @@ public class BgDictionary {
 	}
 
 	private class Lexemes implements Iterable<Lexeme>, Iterator<Lexeme> {
-		Entry<Integer, WordEntry> entry;
+		final LexemeTable table;
+		int i;
 
 		private Lexemes() {
-			entry = widMap.firstEntry();
+			table = getLexemeTable();
+			i = table.nextLexeme(0);
 		}
 
 		@Override
@@ -1009,22 +1891,16 @@ public class BgDictionary {
 
 		@Override
 		public boolean hasNext() {
-			return entry != null;
+			return i != -1;
 		}
 
 		@Override
 		public Lexeme next() {
-			if(entry == null) throw new NoSuchElementException();
+			if(!hasNext()) throw new NoSuchElementException();
 
-			Lexeme l = getLexeme(entry.getValue());
-
-			if(l.forms.length > 0) {
-				entry = widMap.higherEntry(l.forms[l.forms.length - 1].id);
-			} else {
-				entry = widMap.higherEntry(l.lemma.id);
-			}
-
-			return l;
+			Lexeme res = table.getLexeme(i);
+			i = table.nextLexeme(i + 1);
+			return res;
 		}
 
 		@Override
@@ -1033,16 +1909,12 @@ public class BgDictionary {
 		}
 	}
 
-	private final Iterable<Lexeme> lexemes = new Lexemes();
-
 	public Iterable<Lexeme> lexemes() {
-		return lexemes;
+		return new Lexemes();
 	}
 
-	private final Iterable<WordEntry> lemmas = new Lemmas();
-
 	public Iterable<WordEntry> lemmas() {
-		return lemmas;
+		return new Lemmas();
 	}
 
 	public static boolean isBgLetter(char c) {
@@ -0,0 +1,312 @@
+/*
+ *   Copyright (C) 2026 Grigor Iliev <grigor@grigoriliev.com>
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package eu.ideya.lingua.bg.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Compares two dictionaries lexeme by lexeme. The lexemes are joined
+ * by their lemmas (word and grammatical label UID). When the same lemma
+ * occurs in several lexemes, the lexemes with equal word forms are
+ * paired first and the remaining ones are paired in dictionary order.
+ *
+ * <p>Each lexeme has a 64-bit fingerprint of its word forms, which does
+ * not depend on the order of the forms. The word forms are compared
+ * one by one only when the fingerprints of the joined lexemes differ.
+ * The lexemes are compared in parallel.
+ */
+public class BgDictionaryDiff {
+	/**
+	 * Receives the differences found. The methods are called by the
+	 * thread which started the comparison.
+	 */
+	public interface Listener {
+		/** Called for each lexeme missing in the old dictionary. */
+		void lexemeAdded(Lexeme lexeme);
+
+		/** Called for each lexeme missing in the new dictionary. */
+		void lexemeRemoved(Lexeme lexeme);
+
+		/**
+		 * Called for each lexeme whose lemma is present in both
+		 * dictionaries, but with different sets of word forms.
+		 */
+		void lexemeChanged(Lexeme oldLexeme, Lexeme newLexeme);
+	}
+
+	/** The number of lexemes compared by a single task. */
+	private static final int CHUNK_SIZE = 4096;
+
+	private final Side oldSide;
+	private final Side newSide;
+
+	public BgDictionaryDiff(BgDictionary oldDict, BgDictionary newDict) {
+		oldSide = new Side(oldDict);
+		newSide = new Side(newDict);
+	}
+
+	/**
+	 * Compares the dictionaries using the common fork/join pool.
+	 * @see #compare(Listener, ForkJoinPool)
+	 */
+	public void compare(Listener listener) {
+		compare(listener, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Compares the dictionaries using the specified pool. The changed
+	 * and added lexemes are reported first in the order of the new
+	 * dictionary, followed by the removed lexemes in the order of the
+	 * old dictionary. The differences are reported as soon as the
+	 * comparison of each chunk of lexemes is complete.
+	 */
+	public void compare(Listener listener, ForkJoinPool pool) {
+		ForkJoinTask<?>[] tasks = { pool.submit(oldSide::index), pool.submit(newSide::index) };
+		for(ForkJoinTask<?> t : tasks) t.join();
+
+		ArrayList<ForkJoinTask<?>> pairing = new ArrayList<>();
+		for(int i = 0; i < newSide.lexemes.length; i += CHUNK_SIZE) {
+			final int start = i;
+			pairing.add(pool.submit(() -> pair(start)));
+		}
+
+		for(ForkJoinTask<?> t : pairing) t.join();
+
+		ArrayList<ForkJoinTask<ArrayList<Lexeme[]>>> added = new ArrayList<>();
+		for(int i = 0; i < newSide.lexemes.length; i += CHUNK_SIZE) {
+			final int start = i;
+			added.add(pool.submit(() -> findChanges(newSide, oldSide, start)));
+		}
+
+		ArrayList<ForkJoinTask<ArrayList<Lexeme[]>>> removed = new ArrayList<>();
+		for(int i = 0; i < oldSide.lexemes.length; i += CHUNK_SIZE) {
+			final int start = i;
+			removed.add(pool.submit(() -> findChanges(oldSide, newSide, start)));
+		}
+
+		for(ForkJoinTask<ArrayList<Lexeme[]>> t : added) {
+			for(Lexeme[] d : t.join()) {
+				if(d[1] == null) listener.lexemeAdded(d[0]);
+				else listener.lexemeChanged(d[1], d[0]);
+			}
+		}
+
+		for(ForkJoinTask<ArrayList<Lexeme[]>> t : removed) {
+			for(Lexeme[] d : t.join()) listener.lexemeRemoved(d[0]);
+		}
+	}
+
+	/**
+	 * Pairs the lexemes of the new dictionary starting at the specified
+	 * index with the lexemes of the old dictionary. Each group of lexemes
+	 * with the same lemma is paired by the task containing its first
+	 * lexeme, so the tasks change different elements of the partner arrays.
+	 */
+	private void pair(int start) {
+		int end = Math.min(start + CHUNK_SIZE, newSide.lexemes.length);
+
+		for(int i = start; i < end; i++) {
+			WordKey key = new WordKey(newSide.lexemes[i].lemma);
+			int[] group1 = newSide.lemmas.get(key);
+			if(group1[0] != i) continue;
+
+			int[] group2 = oldSide.lemmas.get(key);
+			if(group2 == null) continue;
+
+			if(group1.length == 1 && group2.length == 1) {
+				newSide.partners[i] = group2[0];
+				oldSide.partners[group2[0]] = i;
+				continue;
+			}
+
+			// the lexemes with equal forms first
+			for(int n : group1) {
+				for(int o : group2) {
+					if(oldSide.partners[o] != -1) continue;
+					if(newSide.fingerprints[n] != oldSide.fingerprints[o]) continue;
+					if(!sameForms(newSide.lexemes[n], oldSide.lexemes[o])) continue;
+
+					newSide.partners[n] = o;
+					oldSide.partners[o] = n;
+					break;
+				}
+			}
+
+			int k = 0;
+			for(int n : group1) {
+				if(newSide.partners[n] != -1) continue;
+
+				while(k < group2.length && oldSide.partners[group2[k]] != -1) k++;
+				if(k == group2.length) break;
+
+				newSide.partners[n] = group2[k];
+				oldSide.partners[group2[k]] = n;
+			}
+		}
+	}
+
+	/**
+	 * Checks a chunk of lexemes from side <code>s1</code>. Returns the
+	 * lexemes without a partner in <code>s2</code> as
+	 * <code>{lexeme, null}</code> and, if <code>s1</code> is the new
+	 * side, the changed lexemes as <code>{newLexeme, oldLexeme}</code>.
+	 */
+	private ArrayList<Lexeme[]> findChanges(Side s1, Side s2, int start) {
+		ArrayList<Lexeme[]> res = new ArrayList<>();
+		int end = Math.min(start + CHUNK_SIZE, s1.lexemes.length);
+
+		for(int i = start; i < end; i++) {
+			Lexeme l = s1.lexemes[i];
+			int j = s1.partners[i];
+
+			if(j == -1) {
+				res.add(new Lexeme[] { l, null });
+				continue;
+			}
+
+			if(s1 != newSide) continue;
+
+			if(s1.fingerprints[i] == s2.fingerprints[j]) continue;
+			if(sameForms(l, s2.lexemes[j])) continue;
+
+			res.add(new Lexeme[] { l, s2.lexemes[j] });
+		}
+
+		return res;
+	}
+
+	/**
+	 * Returns a 64-bit fingerprint of the word forms of the specified
+	 * lexeme, which does not depend on the order of the forms.
+	 */
+	public static long fingerprint(Lexeme l) {
+		long h = 0;
+		for(WordEntry we : l.forms) h += mix(hash(we.word) * 31 + we.grammLabelUid);
+		return h;
+	}
+
+	/**
+	 * Returns <code>true</code> if the specified lexemes have equal
+	 * sets of word forms.
+	 */
+	public static boolean sameForms(Lexeme l1, Lexeme l2) {
+		if(l1.forms.length != l2.forms.length) return false;
+
+		HashSet<WordKey> forms = new HashSet<>();
+		for(WordEntry we : l2.forms) forms.add(new WordKey(we));
+
+		for(WordEntry we : l1.forms) {
+			if(!forms.contains(new WordKey(we))) return false;
+		}
+
+		return true;
+	}
+
+	/** FNV-1a */
+	private static long hash(String s) {
+		long h = 0xcbf29ce484222325L;
+
+		for(int i = 0; i < s.length(); i++) {
+			h ^= s.charAt(i);
+			h *= 0x100000001b3L;
+		}
+
+		return h;
+	}
+
+	/** The finalizer of SplitMix64. */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * The lexemes of a dictionary with their fingerprints and an index
+	 * of the lexemes by lemma.
+	 */
+	private static final class Side {
+		final BgDictionary dict;
+		Lexeme[] lexemes;
+		long[] fingerprints;
+
+		/**
+		 * The index of the paired lexeme from the other dictionary,
+		 * or <code>-1</code> if there is no such lexeme.
+		 */
+		int[] partners;
+
+		/** The indexes of the lexemes with the same lemma in ascending order. */
+		HashMap<WordKey, int[]> lemmas;
+
+		Side(BgDictionary dict) { this.dict = dict; }
+
+		void index() {
+			ArrayList<Lexeme> list = new ArrayList<>();
+			for(Lexeme l : dict.lexemes()) list.add(l);
+			lexemes = list.toArray(new Lexeme[0]);
+
+			fingerprints = new long[lexemes.length];
+			partners = new int[lexemes.length];
+			Arrays.fill(partners, -1);
+			lemmas = new HashMap<>();
+
+			for(int i = 0; i < lexemes.length; i++) {
+				fingerprints[i] = fingerprint(lexemes[i]);
+
+				WordKey key = new WordKey(lexemes[i].lemma);
+				int[] a = lemmas.get(key);
+
+				if(a == null) {
+					a = new int[] { i };
+				} else {
+					a = Arrays.copyOf(a, a.length + 1);
+					a[a.length - 1] = i;
+				}
+
+				lemmas.put(key, a);
+			}
+		}
+	}
+
+	/** A word with a grammatical label UID. */
+	private static final class WordKey {
+		final String word;
+		final int gluid;
+
+		WordKey(WordEntry we) {
+			word = we.word;
+			gluid = we.grammLabelUid;
+		}
+
+		@Override
+		public int hashCode() { return word.hashCode() * 31 + gluid; }
+
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof WordKey)) return false;
+
+			WordKey k = (WordKey)obj;
+			return gluid == k.gluid && word.equals(k.word);
+		}
+	}
+}
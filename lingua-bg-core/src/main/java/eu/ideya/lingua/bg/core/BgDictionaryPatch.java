@@ -0,0 +1,227 @@
+/*
+ *   Copyright (C) 2026 Grigor Iliev <grigor@grigoriliev.com>
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package eu.ideya.lingua.bg.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+
+/**
+ * The differences between two dictionaries, which can be applied to
+ * the older dictionary with {@link BgDictionary#applyPatch}. A changed
+ * lexeme is stored as a removed lexeme followed by an added lexeme.
+ *
+ * <p>The removed lexemes are identified by their lemma, grammatical
+ * label UID and rank - the number of the preceding lexemes with the same
+ * lemma and grammatical label UID. The added lexemes are stored with
+ * all their words.
+ *
+ * <p>Binary format (big-endian):
+ * <pre>
+ * int    magic ("LBGP")
+ * int    version
+ * int    number of removed lexemes
+ *        for each: UTF lemma, int grammatical label UID, int rank
+ * int    number of added lexemes
+ *        for each: int word count (including the lemma),
+ *        followed by UTF word and int grammatical label UID for each word
+ * </pre>
+ */
+public class BgDictionaryPatch {
+	static final int MAGIC = 0x4C424750;
+	static final int VERSION = 1;
+
+	final ArrayList<String> removedWords = new ArrayList<>();
+	final ArrayList<Integer> removedGluids = new ArrayList<>();
+	final ArrayList<Integer> removedRanks = new ArrayList<>();
+
+	/** The words of the added lexemes. The lemma is first. */
+	final ArrayList<String[]> addedWords = new ArrayList<>();
+	final ArrayList<int[]> addedGluids = new ArrayList<>();
+
+	private BgDictionaryPatch() { }
+
+	/**
+	 * Creates a patch, which transforms <code>oldDict</code>
+	 * into <code>newDict</code>.
+	 * @see BgDictionaryDiff
+	 */
+	public static BgDictionaryPatch create(final BgDictionary oldDict, BgDictionary newDict) {
+		final BgDictionaryPatch patch = new BgDictionaryPatch();
+
+		new BgDictionaryDiff(oldDict, newDict).compare(new BgDictionaryDiff.Listener() {
+			@Override
+			public void lexemeAdded(Lexeme lexeme) { patch.addAdded(lexeme); }
+
+			@Override
+			public void lexemeRemoved(Lexeme lexeme) { patch.addRemoved(oldDict, lexeme); }
+
+			@Override
+			public void lexemeChanged(Lexeme oldLexeme, Lexeme newLexeme) {
+				patch.addRemoved(oldDict, oldLexeme);
+				patch.addAdded(newLexeme);
+			}
+		});
+
+		return patch;
+	}
+
+	private void addRemoved(BgDictionary dict, Lexeme l) {
+		int rank = 0;
+
+		for(WordEntry we : dict.getLemmas(l.lemma.word)) {
+			if(we.grammLabelUid != l.lemma.grammLabelUid) continue;
+			if(we.id < l.lemma.id) rank++;
+		}
+
+		removedWords.add(l.lemma.word);
+		removedGluids.add(l.lemma.grammLabelUid);
+		removedRanks.add(rank);
+	}
+
+	private void addAdded(Lexeme l) {
+		String[] words = new String[l.forms.length + 1];
+		int[] gluids = new int[words.length];
+
+		words[0] = l.lemma.word;
+		gluids[0] = l.lemma.grammLabelUid;
+
+		for(int i = 0; i < l.forms.length; i++) {
+			words[i + 1] = l.forms[i].word;
+			gluids[i + 1] = l.forms[i].grammLabelUid;
+		}
+
+		addedWords.add(words);
+		addedGluids.add(gluids);
+	}
+
+	/** Returns the number of the removed (including the changed) lexemes. */
+	public int getRemovedCount() { return removedWords.size(); }
+
+	/** Returns the number of the added (including the changed) lexemes. */
+	public int getAddedCount() { return addedWords.size(); }
+
+	/**
+	 * Determines whether this patch contains no changes.
+	 */
+	public boolean isEmpty() { return removedWords.isEmpty() && addedWords.isEmpty(); }
+
+	public void writeToFile(String file) throws IOException {
+		try(OutputStream out = new FileOutputStream(new File(file))) {
+			writeToStream(out);
+		}
+	}
+
+	public void writeToStream(OutputStream stream) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+
+		out.writeInt(removedWords.size());
+		for(int i = 0; i < removedWords.size(); i++) {
+			out.writeUTF(removedWords.get(i));
+			out.writeInt(removedGluids.get(i));
+			out.writeInt(removedRanks.get(i));
+		}
+
+		out.writeInt(addedWords.size());
+		for(int i = 0; i < addedWords.size(); i++) {
+			String[] words = addedWords.get(i);
+			int[] gluids = addedGluids.get(i);
+
+			out.writeInt(words.length);
+			for(int j = 0; j < words.length; j++) {
+				out.writeUTF(words[j]);
+				out.writeInt(gluids[j]);
+			}
+		}
+
+		out.flush();
+	}
+
+	public static BgDictionaryPatch readFromFile(String file) throws IOException {
+		File f = new File(file);
+		if(!f.exists() || !f.isFile() || !f.canRead()) {
+			String s = f.getAbsolutePath();
+			String err = i18n().getError("BgDictionary.invalidFile", s);
+			throw new IllegalArgumentException(err);
+		}
+
+		try(InputStream in = new FileInputStream(f)) {
+			return readFromStream(in);
+		}
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the stream does not contain
+	 * a valid patch.
+	 */
+	public static BgDictionaryPatch readFromStream(InputStream stream) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+
+		if(in.readInt() != MAGIC) {
+			throw new IllegalArgumentException(i18n().getError("BgDictionaryPatch.invalidFormat"));
+		}
+
+		int version = in.readInt();
+		if(version != VERSION) {
+			String err = i18n().getError("BgDictionaryPatch.unsupportedVersion", String.valueOf(version));
+			throw new IllegalArgumentException(err);
+		}
+
+		BgDictionaryPatch patch = new BgDictionaryPatch();
+
+		int n = in.readInt();
+		for(int i = 0; i < n; i++) {
+			patch.removedWords.add(in.readUTF());
+			patch.removedGluids.add(in.readInt());
+			patch.removedRanks.add(in.readInt());
+		}
+
+		n = in.readInt();
+		for(int i = 0; i < n; i++) {
+			int count = in.readInt();
+			if(count < 1) {
+				throw new IllegalArgumentException(i18n().getError("BgDictionaryPatch.invalidFormat"));
+			}
+
+			String[] words = new String[count];
+			int[] gluids = new int[count];
+
+			for(int j = 0; j < count; j++) {
+				words[j] = in.readUTF();
+				gluids[j] = in.readInt();
+			}
+
+			patch.addedWords.add(words);
+			patch.addedGluids.add(gluids);
+		}
+
+		return patch;
+	}
+
+	private static I18n i18n() { return I18n.getInstance(); }
+}
@@ -0,0 +1,320 @@
+/*
+ *   Copyright (C) 2026 Grigor Iliev <grigor@grigoriliev.com>
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package eu.ideya.lingua.bg.core;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * An immutable, compact representation of a {@link BgDictionary}.
+ * The word entries are kept in parallel primitive columns ordered by
+ * word ID and all distinct words are stored once in a front-coded
+ * {@link WordStore}, which takes about one byte per letter of the
+ * distinct word endings.
+ * The words are looked up through a minimal acyclic automaton, which maps
+ * each word form to the group of its entries.
+ * Word entries are materialized on demand, so the returned
+ * {@link WordEntry} objects are equal to (but not the same as) the
+ * entries in the source dictionary.
+ * @see BgDictionary#freeze()
+ */
+public class BgDictionarySnapshot {
+	/** Word entry IDs in ascending order. */
+	private final int[] ids;
+
+	/** The lemma ID of each entry, or <code>-1</code> for lemmas. */
+	private final int[] lemmaIds;
+
+	/** The grammatical label UID of each entry. */
+	private final int[] gluids;
+
+	/** The index of the word of each entry in the (sorted) word store. */
+	private final int[] wordIdx;
+
+	/** All distinct words, sorted. */
+	private final WordStore wordStore;
+
+	/** Entry indexes grouped by word and ordered by ID within each group. */
+	private final int[] byWord;
+
+	/** The start of each word group in <code>byWord</code>. */
+	private final int[] groupStart;
+
+	/** Maps each word to its index in the word store. */
+	private final WordAutomaton automaton;
+
+	/**
+	 * Creates a snapshot of the specified word entries.
+	 * @param entries The word entries ordered by ID, each lemma
+	 * followed by its word forms.
+	 */
+	BgDictionarySnapshot(Collection<WordEntry> entries) {
+		int n = entries.size();
+
+		ids = new int[n];
+		lemmaIds = new int[n];
+		gluids = new int[n];
+		wordIdx = new int[n];
+
+		TreeMap<String, int[]> words = new TreeMap<>();
+		int[] counts;
+
+		int i = 0;
+		for(WordEntry we : entries) {
+			ids[i] = we.id;
+			lemmaIds[i] = we.lemmaId;
+			gluids[i] = we.grammLabelUid;
+
+			counts = words.get(we.word);
+			if(counts == null) words.put(we.word, new int[] { 1 });
+			else counts[0]++;
+
+			i++;
+		}
+
+		groupStart = new int[words.size() + 1];
+		byWord = new int[n];
+
+		int w = 0, start = 0;
+		for(Map.Entry<String, int[]> e : words.entrySet()) {
+			groupStart[w] = start;
+			start += e.getValue()[0];
+
+			// reuse the counter as a word index for the second pass
+			e.getValue()[0] = w++;
+		}
+
+		groupStart[w] = start;
+
+		String[] sorted = words.keySet().toArray(new String[0]);
+		wordStore = new WordStore(sorted);
+		automaton = WordAutomaton.build(sorted);
+
+		int[] fill = Arrays.copyOf(groupStart, w);
+
+		i = 0;
+		for(WordEntry we : entries) {
+			int idx = words.get(we.word)[0];
+			wordIdx[i] = idx;
+			byWord[fill[idx]++] = i; // entries are visited in ID order
+			i++;
+		}
+	}
+
+	/** Returns the number of distinct words in this snapshot. */
+	public int size() { return wordStore.size(); }
+
+	public int getTokenCount() { return ids.length; }
+
+	/**
+	 * Returns all words equals to the specified string.
+	 * An empty array is returned if there are no such words.
+	 */
+	public WordEntry[] getWords(String s) {
+		int w = findWord(s);
+		if(w == -1) return new WordEntry[0];
+
+		WordEntry[] res = new WordEntry[groupStart[w + 1] - groupStart[w]];
+		for(int i = 0; i < res.length; i++) {
+			res[i] = getEntry(byWord[groupStart[w] + i], s);
+		}
+
+		return res;
+	}
+
+	/**
+	 * Returns a list of all words equals to the specified string.
+	 */
+	public ArrayList<WordEntry> findExactMatches(String s) {
+		return new ArrayList<>(Arrays.asList(getWords(s)));
+	}
+
+	/**
+	 * Returns all lemmas which have word form <code>wordForm</code>.
+	 * If the specified word is a lemma, it is also included.
+	 * An empty array is returned if no lemmas are found.
+	 */
+	public WordEntry[] findLemmas(String wordForm) {
+		return findLemmas(wordForm, null);
+	}
+
+	/**
+	 * Returns all lemmas which have word form <code>wordForm</code>.
+	 * If the specified word is a lemma, it is also included.
+	 * An empty array is returned if no lemmas are found.
+	 * @param tag If not <code>null</code>, words with different tags
+	 * (in terms of {@link BTBUtils#differentTags}) are ignored.
+	 */
+	public WordEntry[] findLemmas(String wordForm, String tag) {
+		int w = findWord(wordForm);
+		if(w == -1) return new WordEntry[0];
+
+		int end = groupStart[w + 1];
+		int[] lemmas = new int[end - groupStart[w]];
+		int count = 0;
+		TagPattern p = tag == null ? null : TagPattern.compile(tag);
+
+		for(int k = groupStart[w]; k < end; k++) {
+			int i = byWord[k];
+
+			if(p != null && !p.matches(gluids[i])) continue;
+
+			int l = lemmaIds[i] == -1 ? i : indexOf(lemmaIds[i]);
+			if(l == -1) continue;
+
+			// two different word forms (from same lexeme) can be
+			// represented by same string, so we need to check
+			boolean found = false;
+			for(int j = 0; j < count; j++) {
+				if(lemmas[j] == l) {
+					found = true;
+					break;
+				}
+			}
+
+			if(!found) lemmas[count++] = l;
+		}
+
+		WordEntry[] res = new WordEntry[count];
+		for(int j = 0; j < count; j++) res[j] = getEntry(lemmas[j]);
+
+		return res;
+	}
+
+	/**
+	 * Returns the word entry with ID <code>id</code>, or <code>null</code>
+	 * if a word entry with the specified ID does not exist.
+	 */
+	public WordEntry getWordEntryById(int id) {
+		int i = indexOf(id);
+		return i == -1 ? null : getEntry(i);
+	}
+
+	/**
+	 * Returns the word of the entry with ID <code>id</code> without
+	 * creating the entry, or <code>null</code> if a word entry with the
+	 * specified ID does not exist. The word is decoded into a view,
+	 * which is converted to a string only if needed.
+	 */
+	public CharSequence getWord(int id) {
+		int i = indexOf(id);
+		return i == -1 ? null : wordStore.getWord(wordIdx[i]);
+	}
+
+	/**
+	 * Returns the lexeme for the specified lemma.
+	 * @throws IllegalArgumentException if the specified word entry is not
+	 * a lemma from this snapshot or if it is not a lemma at all.
+	 */
+	public Lexeme getLexeme(WordEntry lemma) {
+		if(!lemma.isLemma()) {
+			String s = lemma.toString();
+			throw new IllegalArgumentException(i18n().getError("BgDictionary.notLemma", s));
+		}
+
+		int i = indexOf(lemma.id);
+		if(i == -1 || lemmaIds[i] != -1) {
+			String s = lemma.toString();
+			throw new IllegalArgumentException(i18n().getError("BgDictionary.notFromDict", s));
+		}
+
+		return getLexeme(i);
+	}
+
+	private Lexeme getLexeme(int lemmaIdx) {
+		int end = lemmaIdx + 1;
+		while(end < ids.length && lemmaIds[end] != -1) end++;
+
+		WordEntry[] forms = new WordEntry[end - lemmaIdx - 1];
+		for(int i = 0; i < forms.length; i++) forms[i] = getEntry(lemmaIdx + 1 + i);
+
+		return new Lexeme(getEntry(lemmaIdx), forms);
+	}
+
+	/**
+	 * Returns the index of the entry with the specified ID, or <code>-1</code>.
+	 */
+	private int indexOf(int id) {
+		int i = Arrays.binarySearch(ids, id);
+		return i < 0 ? -1 : i;
+	}
+
+	/**
+	 * Returns the index of the specified word in the word store,
+	 * or <code>-1</code> if there is no such word.
+	 */
+	private int findWord(String s) {
+		return automaton.indexOf(s);
+	}
+
+	/**
+	 * Writes this snapshot to the specified file in the binary dictionary
+	 * format, which can be queried in place using {@link MappedBgDictionary}.
+	 */
+	public void writeToFile(String file) throws IOException {
+		String[] words = new String[size()];
+		for(int w = 0; w < words.length; w++) words[w] = wordStore.getString(w);
+
+		MappedBgDictionary.write(file, ids, lemmaIds, gluids, wordIdx, words, byWord, groupStart);
+	}
+
+	private WordEntry getEntry(int i) {
+		return getEntry(i, wordStore.getString(wordIdx[i]));
+	}
+
+	private WordEntry getEntry(int i, String word) {
+		return new WordEntry(word, ids[i], lemmaIds[i], gluids[i]);
+	}
+
+	private class Lexemes implements Iterable<Lexeme>, Iterator<Lexeme> {
+		int next = 0;
+
+		@Override
+		public Iterator<Lexeme> iterator() {
+			return new Lexemes();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < ids.length;
+		}
+
+		@Override
+		public Lexeme next() {
+			if(next >= ids.length) throw new NoSuchElementException();
+
+			Lexeme l = getLexeme(next);
+			next += l.forms.length + 1;
+
+			return l;
+		}
+	}
+
+	private final Iterable<Lexeme> lexemes = new Lexemes();
+
+	public Iterable<Lexeme> lexemes() {
+		return lexemes;
+	}
+
+	private static I18n i18n() { return I18n.getInstance(); }
+}
@@ -0,0 +1,107 @@
+/*
+ *   Copyright (C) 2026 Grigor Iliev <grigor@grigoriliev.com>
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package eu.ideya.lingua.bg.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The word buckets of a dictionary grouped by their size, which is
+ * the ambiguity count of the word. A bucket is moved to another group
+ * when its size changes, in constant time.
+ */
+final class BucketIndex {
+	private static final WordBucket[] EMPTY = new WordBucket[0];
+
+	/** The buckets indexed by size. */
+	private WordBucket[][] buckets = new WordBucket[16][];
+
+	/** The number of buckets of each size. */
+	private int[] counts = new int[16];
+
+	BucketIndex() { Arrays.fill(buckets, EMPTY); }
+
+	/** Adds the specified bucket to the group of its current size. */
+	void add(WordBucket b) {
+		int size = b.size();
+
+		if(size >= counts.length) {
+			int n = Math.max(size + 1, counts.length * 2);
+			int old = counts.length;
+			counts = Arrays.copyOf(counts, n);
+			buckets = Arrays.copyOf(buckets, n);
+			Arrays.fill(buckets, old, n, EMPTY);
+		}
+
+		WordBucket[] a = buckets[size];
+		int n = counts[size];
+		if(n == a.length) buckets[size] = a = Arrays.copyOf(a, Math.max(4, n * 2));
+
+		a[n] = b;
+		b.slot = n;
+		counts[size] = n + 1;
+	}
+
+	/**
+	 * Removes the specified bucket from the group of the specified size,
+	 * which is the size of the bucket when it was added.
+	 */
+	void remove(WordBucket b, int size) {
+		WordBucket[] a = buckets[size];
+		int last = --counts[size];
+
+		// the last bucket takes the place of the removed one
+		a[b.slot] = a[last];
+		a[b.slot].slot = b.slot;
+		a[last] = null;
+		b.slot = -1;
+	}
+
+	/** Returns the number of buckets with the specified size. */
+	int get(int size) {
+		return size > 0 && size < counts.length ? counts[size] : 0;
+	}
+
+	/** Returns the buckets with the specified size. */
+	ArrayList<TreeSet<WordEntry>> getBuckets(int size) {
+		int n = get(size);
+		ArrayList<TreeSet<WordEntry>> res = new ArrayList<>(n);
+		for(int i = 0; i < n; i++) res.add(buckets[size][i]);
+		return res;
+	}
+
+	void clear() {
+		Arrays.fill(buckets, EMPTY);
+		Arrays.fill(counts, 0);
+	}
+
+	/**
+	 * Returns a map with the sizes as keys and the number of buckets
+	 * as values. Sizes without buckets are omitted.
+	 */
+	TreeMap<Integer, Integer> toMap() {
+		TreeMap<Integer, Integer> m = new TreeMap<>();
+
+		for(int i = 1; i < counts.length; i++) {
+			if(counts[i] > 0) m.put(i, counts[i]);
+		}
+
+		return m;
+	}
+}
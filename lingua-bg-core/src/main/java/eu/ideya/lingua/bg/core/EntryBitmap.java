@@ -0,0 +1,241 @@
+/*
+ *   Copyright (C) 2026 Grigor Iliev <grigor@grigoriliev.com>
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package eu.ideya.lingua.bg.core;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * A compressed set of non-negative integers (entry indexes).
+ * The integers are split in chunks of 65536 by their high 16 bits and
+ * each chunk is stored either as a sorted array of its low 16 bits
+ * (sparse chunks) or as a 65536-bit bitmap (dense chunks).
+ */
+final class EntryBitmap {
+	/** The maximum size of a sparse chunk. */
+	private static final int ARRAY_MAX = 4096;
+
+	private static final int BITMAP_WORDS = 1 << 10;
+
+	/** The high 16 bits of the chunks in ascending order. */
+	private char[] keys = new char[4];
+
+	/** <code>char[]</code> (sparse) or <code>long[]</code> (dense) chunks. */
+	private Object[] chunks = new Object[4];
+
+	/** The number of integers in each chunk. */
+	private int[] cards = new int[4];
+
+	private int chunkCount = 0;
+
+	/**
+	 * Adds the specified integer, which should be greater than all
+	 * integers already added to this set.
+	 */
+	void add(int x) {
+		char key = (char)(x >>> 16);
+		char low = (char)x;
+
+		if(chunkCount == 0 || keys[chunkCount - 1] != key) {
+			addChunk(key, new char[4], 0);
+		}
+
+		int i = chunkCount - 1;
+		Object c = chunks[i];
+
+		if(c instanceof char[]) {
+			char[] a = (char[])c;
+
+			if(cards[i] == ARRAY_MAX) {
+				long[] b = new long[BITMAP_WORDS];
+				for(int k = 0; k < cards[i]; k++) b[a[k] >>> 6] |= 1L << a[k];
+				b[low >>> 6] |= 1L << low;
+				chunks[i] = b;
+			} else {
+				if(cards[i] == a.length) chunks[i] = a = Arrays.copyOf(a, a.length * 2);
+				a[cards[i]] = low;
+			}
+		} else {
+			((long[])c)[low >>> 6] |= 1L << low;
+		}
+
+		cards[i]++;
+	}
+
+	private void addChunk(char key, Object chunk, int card) {
+		if(chunkCount == keys.length) {
+			keys = Arrays.copyOf(keys, chunkCount * 2);
+			chunks = Arrays.copyOf(chunks, chunkCount * 2);
+			cards = Arrays.copyOf(cards, chunkCount * 2);
+		}
+
+		keys[chunkCount] = key;
+		chunks[chunkCount] = chunk;
+		cards[chunkCount++] = card;
+	}
+
+	/** Returns the number of integers in this set. */
+	int cardinality() {
+		int n = 0;
+		for(int i = 0; i < chunkCount; i++) n += cards[i];
+		return n;
+	}
+
+	/**
+	 * Returns a new set with the integers contained in both this
+	 * and the specified set.
+	 */
+	EntryBitmap and(EntryBitmap other) {
+		EntryBitmap res = new EntryBitmap();
+		int i = 0, j = 0;
+
+		while(i < chunkCount && j < other.chunkCount) {
+			if(keys[i] < other.keys[j]) i++;
+			else if(keys[i] > other.keys[j]) j++;
+			else {
+				Object c1 = chunks[i], c2 = other.chunks[j];
+				int card;
+				Object c;
+
+				if(c1 instanceof char[] && c2 instanceof char[]) {
+					char[] a = new char[Math.min(cards[i], other.cards[j])];
+					card = intersect((char[])c1, cards[i], (char[])c2, other.cards[j], a);
+					c = a;
+				} else if(c1 instanceof char[]) {
+					char[] a = new char[cards[i]];
+					card = filter((char[])c1, cards[i], (long[])c2, a);
+					c = a;
+				} else if(c2 instanceof char[]) {
+					char[] a = new char[other.cards[j]];
+					card = filter((char[])c2, other.cards[j], (long[])c1, a);
+					c = a;
+				} else {
+					long[] b1 = (long[])c1, b2 = (long[])c2;
+					long[] b = new long[BITMAP_WORDS];
+					card = 0;
+					for(int k = 0; k < BITMAP_WORDS; k++) {
+						b[k] = b1[k] & b2[k];
+						card += Long.bitCount(b[k]);
+					}
+
+					c = card > ARRAY_MAX ? b : toArray(b, card);
+				}
+
+				if(card > 0) res.addChunk(keys[i], c, card);
+				i++;
+				j++;
+			}
+		}
+
+		return res;
+	}
+
+	private static int intersect(char[] a, int n1, char[] b, int n2, char[] res) {
+		int i = 0, j = 0, k = 0;
+
+		while(i < n1 && j < n2) {
+			if(a[i] < b[j]) i++;
+			else if(a[i] > b[j]) j++;
+			else {
+				res[k++] = a[i++];
+				j++;
+			}
+		}
+
+		return k;
+	}
+
+	private static int filter(char[] a, int n, long[] b, char[] res) {
+		int k = 0;
+
+		for(int i = 0; i < n; i++) {
+			if((b[a[i] >>> 6] & (1L << a[i])) != 0) res[k++] = a[i];
+		}
+
+		return k;
+	}
+
+	private static char[] toArray(long[] b, int card) {
+		char[] a = new char[card];
+		int k = 0;
+
+		for(int w = 0; w < BITMAP_WORDS; w++) {
+			long word = b[w];
+			while(word != 0) {
+				a[k++] = (char)((w << 6) + Long.numberOfTrailingZeros(word));
+				word &= word - 1;
+			}
+		}
+
+		return a;
+	}
+
+	/**
+	 * Returns an iterator over the integers in this set in ascending order.
+	 */
+	PrimitiveIterator.OfInt iterator() {
+		return new PrimitiveIterator.OfInt() {
+			int chunk = 0;
+
+			/** Position in a sparse chunk or a bit index in a dense chunk. */
+			int pos = 0;
+
+			int next = advance();
+
+			private int advance() {
+				while(chunk < chunkCount) {
+					Object c = chunks[chunk];
+					int high = keys[chunk] << 16;
+
+					if(c instanceof char[]) {
+						if(pos < cards[chunk]) return high | ((char[])c)[pos++];
+					} else {
+						long[] b = (long[])c;
+						while(pos < BITMAP_WORDS << 6) {
+							long word = b[pos >>> 6] & (-1L << pos);
+							if(word != 0) {
+								int bit = ((pos >>> 6) << 6) + Long.numberOfTrailingZeros(word);
+								pos = bit + 1;
+								return high | bit;
+							}
+
+							pos = ((pos >>> 6) + 1) << 6;
+						}
+					}
+
+					chunk++;
+					pos = 0;
+				}
+
+				return -1;
+			}
+
+			@Override
+			public boolean hasNext() { return next != -1; }
+
+			@Override
+			public int nextInt() {
+				if(next == -1) throw new NoSuchElementException();
+
+				int x = next;
+				next = advance();
+				return x;
+			}
+		};
+	}
+}
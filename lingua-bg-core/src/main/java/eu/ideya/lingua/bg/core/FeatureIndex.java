@@ -0,0 +1,169 @@
+/*
+ *   Copyright (C) 2026 Grigor Iliev <grigor@grigoriliev.com>
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package eu.ideya.lingua.bg.core;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Bitmap indexes over the word entries for each value of each
+ * grammatical feature encoded in the grammatical label UIDs and for
+ * each lexical class. A query is evaluated by intersecting the bitmaps
+ * of the features, which are completely covered by the query mask.
+ * The remaining candidates are then checked against the exact mask,
+ * because some features share bits in the grammatical label UID.
+ */
+final class FeatureIndex {
+	/** The masks of the indexed grammatical features. */
+	private static final int[] FEATURE_MASKS = {
+		GrammaticalLabel.genderMask,
+		GrammaticalLabel.articleMask,
+		GrammaticalLabel.numberMask,
+		GrammaticalLabel.personMask,
+		GrammaticalLabel.caseMask, // the same bits as the verb type
+		GrammaticalLabel.nounTypeMask, // the same bit as the aspect
+		GrammaticalLabel.pronounTypeMask,
+		GrammaticalLabel.pronounFormMask,
+		GrammaticalLabel.transitivityMask,
+		GrammaticalLabel.verbFormMask,
+		GrammaticalLabel.voiceMask,
+		GrammaticalLabel.tenseMask,
+		GrammaticalLabel.numeralTypeMask
+	};
+
+	/** The word entries ordered by ID. */
+	private final WordEntry[] entries;
+
+	private final EntryBitmap all = new EntryBitmap();
+
+	/** The bitmaps of each feature indexed by the feature value. */
+	private final EntryBitmap[][] features = new EntryBitmap[FEATURE_MASKS.length][];
+
+	private final EnumMap<GrammaticalLabel.LexicalClass, EntryBitmap> classes =
+		new EnumMap<>(GrammaticalLabel.LexicalClass.class);
+
+	/**
+	 * @param words The word entries ordered by ID.
+	 */
+	FeatureIndex(Collection<WordEntry> words) {
+		entries = words.toArray(new WordEntry[0]);
+
+		for(int f = 0; f < FEATURE_MASKS.length; f++) {
+			int m = FEATURE_MASKS[f];
+			features[f] = new EntryBitmap[(m >>> Integer.numberOfTrailingZeros(m)) + 1];
+		}
+
+		for(int i = 0; i < entries.length; i++) {
+			int g = entries[i].grammLabelUid;
+			all.add(i);
+
+			for(int f = 0; f < FEATURE_MASKS.length; f++) {
+				int m = FEATURE_MASKS[f];
+				int v = (g & m) >>> Integer.numberOfTrailingZeros(m);
+				if(features[f][v] == null) features[f][v] = new EntryBitmap();
+				features[f][v].add(i);
+			}
+
+			GrammaticalLabel.LexicalClass c = GrammaticalLabel.getLexicalClass(g);
+			EntryBitmap b = classes.get(c);
+			if(b == null) classes.put(c, b = new EntryBitmap());
+			b.add(i);
+		}
+	}
+
+	/**
+	 * Returns the word entries with the specified lexical class whose
+	 * grammatical label UIDs match the specified mask, in ID order.
+	 * @param c The lexical class, or <code>null</code> for all classes.
+	 */
+	Iterator<WordEntry> find(GrammaticalLabel.LexicalClass c, final int glId, final int glMask) {
+		final PrimitiveIterator.OfInt it = intersect(c, glId, glMask);
+
+		return new Iterator<WordEntry>() {
+			WordEntry next = advance();
+
+			private WordEntry advance() {
+				while(it != null && it.hasNext()) {
+					WordEntry we = entries[it.nextInt()];
+					if((we.grammLabelUid & glMask) == glId) return we;
+				}
+
+				return null;
+			}
+
+			@Override
+			public boolean hasNext() { return next != null; }
+
+			@Override
+			public WordEntry next() {
+				if(next == null) throw new NoSuchElementException();
+
+				WordEntry we = next;
+				next = advance();
+				return we;
+			}
+		};
+	}
+
+	/**
+	 * Returns an iterator over the indexes of the entries in the bitmaps
+	 * of the lexical class and of the features covered by the mask, or
+	 * <code>null</code> if there are no such entries. The bitmaps are
+	 * intersected from the smallest one, so the intermediate results
+	 * are small.
+	 */
+	private PrimitiveIterator.OfInt intersect(GrammaticalLabel.LexicalClass c, int glId, int glMask) {
+		EntryBitmap[] bitmaps = new EntryBitmap[FEATURE_MASKS.length + 1];
+		int[] cards = new int[bitmaps.length];
+		int n = 0;
+
+		EntryBitmap b = c == null ? all : classes.get(c);
+		if(b == null) return null;
+		bitmaps[n++] = b;
+
+		for(int f = 0; f < FEATURE_MASKS.length; f++) {
+			int m = FEATURE_MASKS[f];
+			if((glMask & m) != m) continue;
+
+			int v = (glId & m) >>> Integer.numberOfTrailingZeros(m);
+			if(features[f][v] == null) return null;
+			bitmaps[n++] = features[f][v];
+		}
+
+		// insertion sort by cardinality, there are only a few bitmaps
+		for(int i = 0; i < n; i++) {
+			EntryBitmap x = bitmaps[i];
+			int card = x.cardinality(), j = i;
+
+			for(; j > 0 && cards[j - 1] > card; j--) {
+				bitmaps[j] = bitmaps[j - 1];
+				cards[j] = cards[j - 1];
+			}
+
+			bitmaps[j] = x;
+			cards[j] = card;
+		}
+
+		b = bitmaps[0];
+		for(int i = 1; i < n && b.cardinality() > 0; i++) b = b.and(bitmaps[i]);
+
+		return b.iterator();
+	}
+}
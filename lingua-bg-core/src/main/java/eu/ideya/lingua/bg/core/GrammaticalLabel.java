@@ -362,6 +362,89 @@ public class GrammaticalLabel implements Comparable<GrammaticalLabel> {
 	private final static int numeralTypeOffset = 7;
 	public  final static int numeralTypeMask   = 0b111 << numeralTypeOffset;
 
+	/*
+	 * The lexical classes and the feature values are decoded by table
+	 * lookup. The lexical classes are indexed by the numerical value of
+	 * the BG grammatical type and the feature values by the feature bits.
+	 * A null element marks an invalid value. The tables are in a nested
+	 * class, because the enums call i18n() while they are initialized,
+	 * which initializes this class before the enum constants are set.
+	 */
+
+	private static final class Tables {
+		static final LexicalClass[] lexicalClasses = new LexicalClass[256];
+
+		static {
+			for(int code = 1; code < lexicalClasses.length; code++) {
+				int type = BgGrammarType.getTypeId(String.valueOf(code));
+				if(type != -1) lexicalClasses[code] = findLexicalClass(type);
+			}
+		}
+
+		static final NounCase[] nounCases = {
+			NounCase.NONE, NounCase.VOCATIVE, NounCase.ACCUSATIVE, NounCase.DATIVE
+		};
+
+		static final NounType[] nounTypes = { NounType.COMMON, NounType.PROPER };
+
+		static final AdjectiveCase[] adjectiveCases = {
+			AdjectiveCase.NONE, AdjectiveCase.EXTENDED, AdjectiveCase.ACCUSATIVE, AdjectiveCase.DATIVE
+		};
+
+		static final PronounType[] pronounTypes = {
+			PronounType.PERSONAL, PronounType.DEMONSTRATIVE, PronounType.RELATIVE,
+			PronounType.COLLECTIVE, PronounType.INTERROGATIVE, PronounType.INDEFINITE,
+			PronounType.NEGATIVE, PronounType.POSSESSIVE
+		};
+
+		static final PronounCase[] pronounCases = {
+			PronounCase.NONE, PronounCase.NOMINATIVE, PronounCase.ACCUSATIVE, PronounCase.DATIVE
+		};
+
+		static final PronounForm[] pronounForms = {
+			PronounForm.NONE, PronounForm.FULL, PronounForm.SHORT, PronounForm.OLD
+		};
+
+		/** The auxiliary type depends on the grammatical type. */
+		static final VerbType[] verbTypes = {
+			VerbType.PERSONAL, VerbType.IMPERSONAL, null, VerbType.NONE
+		};
+
+		static final Aspect[] aspects = { Aspect.IMPERFECTIVE, Aspect.PERFECTIVE };
+
+		static final Transitivity[] transitivities = {
+			Transitivity.TRANSITIVE, Transitivity.INTRANSITIVE
+		};
+
+		static final VerbForm[] verbForms = {
+			VerbForm.FINITE_INDICATIVE, VerbForm.FINITE_IMPERATIVE, VerbForm.FINITE_CONDITIONAL,
+			VerbForm.NONFINITE_PARTICIPLE, VerbForm.NONFINITE_GERUND, null, null, null
+		};
+
+		static final Voice[] voices = { Voice.NONE, Voice.ACTIVE, Voice.PASSIVE, null };
+
+		static final Tense[] tenses = {
+			Tense.NONE, Tense.PRESENT, Tense.AORIST, Tense.IMPERFECT, Tense.PAST, null, null, null
+		};
+
+		static final Person[] persons = { Person.NONE, Person.FIRST, Person.SECOND, Person.THIRD };
+
+		static final Gender[] genders = { Gender.NONE, Gender.MASCULINE, Gender.FEMININE, Gender.NEUTER };
+
+		static final Article[] articles = {
+			Article.NONE, Article.INDEFINITE, Article.DEFINITE, Article.DEFINITE_FULL
+		};
+
+		static final Number[] numbers = {
+			Number.NONE, Number.SINGULAR, Number.PLURAL, Number.COUNT_FORM, Number.ONLY_PLURAL, null, null, null
+		};
+
+		static final NumeralType[] numeralTypes = {
+			NumeralType.NONE, NumeralType.CARDINAL, NumeralType.ORDINAL,
+			NumeralType.ADVERBIAL, NumeralType.FUZZY, null, null, null
+		};
+	}
+
 	/** The unique identification number of the grammatical label */
 	private int uid;
 	private boolean lemma = false;
@@ -574,6 +657,14 @@ public class GrammaticalLabel implements Comparable<GrammaticalLabel> {
 	 * The lexical class is retrieved from the grammatical type encoded in the UID number.
 	 */
 	public static LexicalClass getLexicalClass(int grammLabelUid) {
+		LexicalClass c = Tables.lexicalClasses[BgGrammarType.getCodeById(grammLabelUid)];
+		if(c != null) return c;
+
+		String s = i18n().getError("GrammaticalLabel.unknownLexicalClass");
+		throw new IllegalArgumentException(s);
+	}
+
+	private static LexicalClass findLexicalClass(int grammLabelUid) {
 		if(isNoun(grammLabelUid)) return LexicalClass.NOUN;
 		if(isAdjective(grammLabelUid)) return LexicalClass.ADJECTIVE;
 		if(isPronoun(grammLabelUid)) return LexicalClass.PRONOUN;
@@ -585,8 +676,7 @@ public class GrammaticalLabel implements Comparable<GrammaticalLabel> {
 		if(isParticle(grammLabelUid)) return LexicalClass.PARTICLE;
 		if(isPreposition(grammLabelUid)) return LexicalClass.PREPOSITION;
 
-		String s = i18n().getError("GrammaticalLabel.unknownLexicalClass");
-		throw new IllegalArgumentException(s);
+		return null;
 	}
 
 	/**
@@ -626,17 +716,7 @@ public class GrammaticalLabel implements Comparable<GrammaticalLabel> {
 	 * The noun case is retrieved from the information encoded in the UID number.
 	 */
 	public static NounCase getNounCase(int grammLabelUid) {
-		int c = (grammLabelUid & caseMask) >> caseOffset;
-
-		switch(c) {
-			case 0: return NounCase.NONE;
-			case 1: return NounCase.VOCATIVE;
-			case 2: return NounCase.ACCUSATIVE;
-			case 3: return NounCase.DATIVE;
-		}
-
-		String s = i18n().getError("GrammaticalLabel.unknownCase");
-		throw new IllegalArgumentException(s);
+		return Tables.nounCases[(grammLabelUid & caseMask) >>> caseOffset];
 	}
 
 	/**
@@ -668,15 +748,7 @@ public class GrammaticalLabel implements Comparable<GrammaticalLabel> {
 	 * The noun type is retrieved from the information encoded in the UID number.
 	 */
 	public static NounType getNounType(int grammLabelUid) {
-		int c = (grammLabelUid & nounTypeMask) >> nounTypeOffset;
-
-		switch(c) {
-			case 0: return NounType.COMMON;
-			case 1: return NounType.PROPER;
-		}
-
-		String s = i18n().getError("GrammaticalLabel.unknownNounType");
-		throw new IllegalArgumentException(s);
+		return Tables.nounTypes[(grammLabelUid & nounTypeMask) >>> nounTypeOffset];
 	}
 
 	/**
@@ -706,17 +778,7 @@ public class GrammaticalLabel implements Comparable<GrammaticalLabel> {
 	 * The adjective case is retrieved from the information encoded in the UID number.
 	 */
 	public static AdjectiveCase getAdjectiveCase(int grammLabelUid) {
-		int c = (grammLabelUid & caseMask) >> caseOffset;
-
-		switch(c) {
-			case 0: return AdjectiveCase.NONE;
-			case 1: return AdjectiveCase.EXTENDED;
-			case 2: return AdjectiveCase.ACCUSATIVE;
-			case 3: return AdjectiveCase.DATIVE;
-		}
-
-		String s = i18n().getError("GrammaticalLabel.unknownCase");
-		throw new IllegalArgumentException(s);
+		return Tables.adjectiveCases[(grammLabelUid & caseMask) >>> caseOffset];
 	}
 
 	/**
@@ -748,21 +810,7 @@ public class GrammaticalLabel implements Comparable<GrammaticalLabel> {
 	 * The pronoun type is retrieved from the information encoded in the UID number.
 	 */
 	public static PronounType getPronounType(int grammLabelUid) {
-		int lc = (grammLabelUid & pronounTypeMask) >> pronounTypeOffset;
-
-		switch(lc) {
-			case 0: return PronounType.PERSONAL;
-			case 1: return PronounType.DEMONSTRATIVE;
-			case 2: return PronounType.RELATIVE;
-			case 3: return PronounType.COLLECTIVE;
-			case 4: return PronounType.INTERROGATIVE;
-			case 5: return PronounType.INDEFINITE;
-			case 6: return PronounType.NEGATIVE;
-			case 7: return PronounType.POSSESSIVE;
-		}
-
-		String s = i18n().getError("GrammaticalLabel.unknownPronounType");
-		throw new IllegalArgumentException(s);
+		return Tables.pronounTypes[(grammLabelUid & pronounTypeMask) >>> pronounTypeOffset];
 	}
 
 	/**
@@ -804,17 +852,7 @@ public class GrammaticalLabel implements Comparable<GrammaticalLabel> {
 	 * The pronoun case is retrieved from the information encoded in the UID number.
 	 */
 	public static PronounCase getPronounCase(int grammLabelUid) {
-		int c = (grammLabelUid & caseMask) >> caseOffset;
-
-		switch(c) {
-			case 0: return PronounCase.NONE;
-			case 1: return PronounCase.NOMINATIVE;
-			case 2: return PronounCase.ACCUSATIVE;
-			case 3: return PronounCase.DATIVE;
-		}
-
-		String s = i18n().getError("GrammaticalLabel.unknownCase");
-		throw new IllegalArgumentException(s);
+		return Tables.pronounCases[(grammLabelUid & caseMask) >>> caseOffset];
 	}
 
 	/**
@@ -846,17 +884,7 @@ public class GrammaticalLabel implements Comparable<GrammaticalLabel> {
 	 * The pronoun form is retrieved from the information encoded in the UID number.
 	 */
 	public static PronounForm getPronounForm(int grammLabelUid) {
-		int c = (grammLabelUid & pronounFormMask) >> pronounFormOffset;
-
-		switch(c) {
-			case 0: return PronounForm.NONE;
-			case 1: return PronounForm.FULL;
-			case 2: return PronounForm.SHORT;
-			case 3: return PronounForm.OLD;
-		}
-
-		String s = i18n().getError("GrammaticalLabel.unknownPronounForm");
-		throw new IllegalArgumentException(s);
+		return Tables.pronounForms[(grammLabelUid & pronounFormMask) >>> pronounFormOffset];
 	}
 
 	/**
@@ -889,23 +917,13 @@ public class GrammaticalLabel implements Comparable<GrammaticalLabel> {
 	 * Note that the auxiliary type also depends on the grammatical type.
 	 */
 	public static VerbType getVerbType(int grammLabelUid) {
-		int c = (grammLabelUid & verbTypeMask) >> verbTypeOffset;
-		if(c == 2) {
-			int t = BgGrammarType.getCodeById(grammLabelUid);
-			if(t == 142) return VerbType.AUXILIARY;
-			if(t == 143) return VerbType.AUXILIARY2;
-			if(t == 186) return VerbType.AUXILIARY3;
-			return VerbType.AUXILIARY; // TODO: exception?
-		}
-
-		switch(c) {
-			case 0: return VerbType.PERSONAL;
-			case 1: return VerbType.IMPERSONAL;
-			case 3: return VerbType.NONE;
-		}
+		int c = (grammLabelUid & verbTypeMask) >>> verbTypeOffset;
+		if(c != 2) return Tables.verbTypes[c];
 
-		String s = i18n().getError("GrammaticalLabel.unknownVerbType");
-		throw new IllegalArgumentException(s);
+		int t = BgGrammarType.getCodeById(grammLabelUid);
+		if(t == 143) return VerbType.AUXILIARY2;
+		if(t == 186) return VerbType.AUXILIARY3;
+		return VerbType.AUXILIARY; // TODO: exception?
 	}
 
 	/**
@@ -940,15 +958,7 @@ public class GrammaticalLabel implements Comparable<GrammaticalLabel> {
 	 * The aspect is retrieved from the information encoded in the UID number.
 	 */
 	public static Aspect getAspect(int grammLabelUid) {
-		int c = (grammLabelUid & aspectMask) >> aspectOffset;
-
-		switch(c) {
-			case 0: return Aspect.IMPERFECTIVE;
-			case 1: return Aspect.PERFECTIVE;
-		}
-
-		String s = i18n().getError("GrammaticalLabel.unknownAspect");
-		throw new IllegalArgumentException(s);
+		return Tables.aspects[(grammLabelUid & aspectMask) >>> aspectOffset];
 	}
 
 	/**
@@ -978,15 +988,7 @@ public class GrammaticalLabel implements Comparable<GrammaticalLabel> {
 	 * The transitivity is retrieved from the information encoded in the UID number.
 	 */
 	public static Transitivity getTransitivity(int grammLabelUid) {
-		int c = (grammLabelUid & transitivityMask) >> transitivityOffset;
-
-		switch(c) {
-			case 0: return Transitivity.TRANSITIVE;
-			case 1: return Transitivity.INTRANSITIVE;
-		}
-
-		String s = i18n().getError("GrammaticalLabel.unknownTransitivity");
-		throw new IllegalArgumentException(s);
+		return Tables.transitivities[(grammLabelUid & transitivityMask) >>> transitivityOffset];
 	}
 
 	/**
@@ -1016,15 +1018,8 @@ public class GrammaticalLabel implements Comparable<GrammaticalLabel> {
 	 * The verb form is retrieved from the information encoded in the UID number.
 	 */
 	public static VerbForm getVerbForm(int grammLabelUid) {
-		int c = (grammLabelUid & verbFormMask) >> verbFormOffset;
-
-		switch(c) {
-			case 0: return VerbForm.FINITE_INDICATIVE;
-			case 1: return VerbForm.FINITE_IMPERATIVE;
-			case 2: return VerbForm.FINITE_CONDITIONAL;
-			case 3: return VerbForm.NONFINITE_PARTICIPLE;
-			case 4: return VerbForm.NONFINITE_GERUND;
-		}
+		VerbForm v = Tables.verbForms[(grammLabelUid & verbFormMask) >>> verbFormOffset];
+		if(v != null) return v;
 
 		String s = i18n().getError("GrammaticalLabel.unknownVerbForm");
 		throw new IllegalArgumentException(s);
@@ -1061,13 +1056,8 @@ public class GrammaticalLabel implements Comparable<GrammaticalLabel> {
 	 * The voice is retrieved from the information encoded in the UID number.
 	 */
 	public static Voice getVoice(int grammLabelUid) {
-		int c = (grammLabelUid & voiceMask) >> voiceOffset;
-
-		switch(c) {
-			case 0: return Voice.NONE;
-			case 1: return Voice.ACTIVE;
-			case 2: return Voice.PASSIVE;
-		}
+		Voice v = Tables.voices[(grammLabelUid & voiceMask) >>> voiceOffset];
+		if(v != null) return v;
 
 		String s = i18n().getError("GrammaticalLabel.unknownVoice");
 		throw new IllegalArgumentException(s);
@@ -1101,15 +1091,8 @@ public class GrammaticalLabel implements Comparable<GrammaticalLabel> {
 	 * The tense is retrieved from the information encoded in the UID number.
 	 */
 	public static Tense getTense(int grammLabelUid) {
-		int c = (grammLabelUid & tenseMask) >> tenseOffset;
-
-		switch(c) {
-			case 0: return Tense.NONE;
-			case 1: return Tense.PRESENT;
-			case 2: return Tense.AORIST;
-			case 3: return Tense.IMPERFECT;
-			case 4: return Tense.PAST;
-		}
+		Tense v = Tables.tenses[(grammLabelUid & tenseMask) >>> tenseOffset];
+		if(v != null) return v;
 
 		String s = i18n().getError("GrammaticalLabel.unknownTense");
 		throw new IllegalArgumentException(s);
@@ -1147,17 +1130,7 @@ public class GrammaticalLabel implements Comparable<GrammaticalLabel> {
 	 * The person is retrieved from the information encoded in the UID number.
 	 */
 	public static Person getPerson(int grammLabelUid) {
-		int c = (grammLabelUid & personMask) >> personOffset;
-
-		switch(c) {
-			case 0: return Person.NONE;
-			case 1: return Person.FIRST;
-			case 2: return Person.SECOND;
-			case 3: return Person.THIRD;
-		}
-
-		String s = i18n().getError("GrammaticalLabel.unknownPerson");
-		throw new IllegalArgumentException(s);
+		return Tables.persons[(grammLabelUid & personMask) >>> personOffset];
 	}
 
 	/**
@@ -1189,16 +1162,7 @@ public class GrammaticalLabel implements Comparable<GrammaticalLabel> {
 	 * The gender is retrieved from the information encoded in the UID number.
 	 */
 	public static Gender getGender(int grammLabelUid) {
-		int c = (grammLabelUid & genderMask) >> genderOffset;
-
-		switch(c) {
-			case 0: return Gender.NONE;
-			case 1: return Gender.MASCULINE;
-			case 2: return Gender.FEMININE;
-			case 3: return Gender.NEUTER;
-		}
-
-		return null;
+		return Tables.genders[(grammLabelUid & genderMask) >>> genderOffset];
 	}
 
 	/**
@@ -1228,16 +1192,7 @@ public class GrammaticalLabel implements Comparable<GrammaticalLabel> {
 	 * The definiteness is retrieved from the information encoded in the UID number.
 	 */
 	public static Article getArticle(int grammLabelUid) {
-		int a = (grammLabelUid & articleMask) >> articleOffset;
-
-		switch(a) {
-			case 0: return Article.NONE;
-			case 1: return Article.INDEFINITE;
-			case 2: return Article.DEFINITE;
-			case 3: return Article.DEFINITE_FULL;
-		}
-
-		return null;
+		return Tables.articles[(grammLabelUid & articleMask) >>> articleOffset];
 	}
 
 	/**
@@ -1270,17 +1225,7 @@ public class GrammaticalLabel implements Comparable<GrammaticalLabel> {
 	 * the UID number.
 	 */
 	public static Number getNumber(int grammLabelUid) {
-		int n = (grammLabelUid & numberMask) >> numberOffset;
-
-		switch(n) {
-			case 0: return Number.NONE;
-			case 1: return Number.SINGULAR;
-			case 2: return Number.PLURAL;
-			case 3: return Number.COUNT_FORM;
-			case 4: return Number.ONLY_PLURAL;
-		}
-
-		return null;
+		return Tables.numbers[(grammLabelUid & numberMask) >>> numberOffset];
 	}
 
 	/**
@@ -1316,15 +1261,8 @@ public class GrammaticalLabel implements Comparable<GrammaticalLabel> {
 	 * The numeral type is retrieved from the information encoded in the UID number.
 	 */
 	public static NumeralType getNumeralType(int grammLabelUid) {
-		int lc = (grammLabelUid & numeralTypeMask) >> numeralTypeOffset;
-
-		switch(lc) {
-			case 0: return NumeralType.NONE;
-			case 1: return NumeralType.CARDINAL;
-			case 2: return NumeralType.ORDINAL;
-			case 3: return NumeralType.ADVERBIAL;
-			case 4: return NumeralType.FUZZY;
-		}
+		NumeralType v = Tables.numeralTypes[(grammLabelUid & numeralTypeMask) >>> numeralTypeOffset];
+		if(v != null) return v;
 
 		String s = i18n().getError("GrammaticalLabel.unknownNumeralType");
 		throw new IllegalArgumentException(s);
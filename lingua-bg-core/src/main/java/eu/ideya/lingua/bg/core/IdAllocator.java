@@ -0,0 +1,57 @@
+/*
+ *   Copyright (C) 2026 Grigor Iliev <grigor@grigoriliev.com>
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package eu.ideya.lingua.bg.core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Allocates the word IDs of a dictionary. The IDs start from one and are
+ * dense as long as all words are added with allocated IDs. Contiguous
+ * ranges can be reserved, so chunks of words can be numbered in parallel.
+ *
+ * <p>The allocation is thread-safe.
+ */
+final class IdAllocator {
+	/** The last allocated ID. */
+	private final AtomicInteger last = new AtomicInteger(0);
+
+	/** Allocates the next ID. */
+	int next() { return last.incrementAndGet(); }
+
+	/**
+	 * Reserves <code>count</code> consecutive IDs and returns the first one.
+	 */
+	int reserve(int count) {
+		if(count < 0) throw new IllegalArgumentException("count < 0");
+		return last.getAndAdd(count) + 1;
+	}
+
+	/**
+	 * Marks all IDs up to and including the specified ID as allocated,
+	 * after a word with this ID is added.
+	 */
+	void allocated(int id) {
+		int l = last.get();
+		while(id > l && !last.compareAndSet(l, id)) l = last.get();
+	}
+
+	/** Returns the last allocated ID, or zero. */
+	int getLast() { return last.get(); }
+
+	/** Starts the allocation from one again. */
+	void reset() { last.set(0); }
+}
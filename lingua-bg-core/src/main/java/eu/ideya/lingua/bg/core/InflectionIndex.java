@@ -0,0 +1,193 @@
+/*
+ *   Copyright (C) 2026 Grigor Iliev <grigor@grigoriliev.com>
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package eu.ideya.lingua.bg.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An index from lemma IDs to the word forms of their lexemes, which
+ * finds the forms with given grammatical features without scanning the
+ * lexeme. The lexemes with the same grammatical labels in the same order
+ * have the same shape. For each query the matching positions are
+ * computed once per shape, so a lookup is an array access by lemma ID,
+ * a hash lookup by query and a copy of the matching forms.
+ *
+ * <p>A computed query takes an array reference per shape and the matching
+ * positions, about <code>4 * (shapes + matches)</code> bytes. Up to
+ * {@link #MAX_QUERIES} queries are cached; the positions of the other
+ * queries are computed on each call.
+ */
+final class InflectionIndex {
+	/** The maximum number of cached queries. */
+	static final int MAX_QUERIES = 256;
+
+	private static final WordEntry[] EMPTY = new WordEntry[0];
+
+	private static final int[] NO_POSITIONS = new int[0];
+
+	/** The index of the lexeme of each lemma ID, or <code>-1</code>. */
+	private final int[] lexemes;
+
+	/** The lemma and the word forms of each lexeme. */
+	private final WordEntry[] entries;
+
+	/** The start of each lexeme in <code>entries</code>, followed by the entry count. */
+	private final int[] lexemeStart;
+
+	/** The shape of each lexeme. */
+	private final int[] shapes;
+
+	/** The grammatical label UIDs of the lexemes of each shape. */
+	private final int[][] shapeGluids;
+
+	/**
+	 * The matching positions in the lexemes of each shape,
+	 * indexed by shape, for each cached query mask and value.
+	 */
+	private final ConcurrentHashMap<Long, int[][]> queries = new ConcurrentHashMap<>();
+
+	/**
+	 * @param lexemes The lexemes of the dictionary.
+	 * @param maxId The largest word ID in the dictionary.
+	 */
+	InflectionIndex(Iterable<Lexeme> lexemes, int maxId) {
+		this.lexemes = new int[maxId + 1];
+		Arrays.fill(this.lexemes, -1);
+
+		ArrayList<WordEntry> words = new ArrayList<>();
+		int[] starts = new int[1024];
+		int[] sh = new int[1024];
+		HashMap<Shape, Integer> shapeIds = new HashMap<>();
+		ArrayList<int[]> gluids = new ArrayList<>();
+		int n = 0;
+
+		for(Lexeme l : lexemes) {
+			if(n + 1 == starts.length) {
+				starts = Arrays.copyOf(starts, n * 2);
+				sh = Arrays.copyOf(sh, n * 2);
+			}
+
+			int[] g = new int[l.forms.length + 1];
+			g[0] = l.lemma.grammLabelUid;
+			for(int i = 0; i < l.forms.length; i++) g[i + 1] = l.forms[i].grammLabelUid;
+
+			Shape s = new Shape(g);
+			Integer id = shapeIds.get(s);
+			if(id == null) {
+				id = gluids.size();
+				shapeIds.put(s, id);
+				gluids.add(g);
+			}
+
+			this.lexemes[l.lemma.id] = n;
+			starts[n] = words.size();
+			sh[n++] = id;
+
+			words.add(l.lemma);
+			words.addAll(Arrays.asList(l.forms));
+		}
+
+		starts[n] = words.size();
+
+		entries = words.toArray(EMPTY);
+		lexemeStart = Arrays.copyOf(starts, n + 1);
+		shapes = Arrays.copyOf(sh, n);
+		shapeGluids = gluids.toArray(new int[0][]);
+	}
+
+	/**
+	 * Returns the positions in the lexemes of each shape, at which the
+	 * grammatical label UID matches the specified mask and value.
+	 */
+	int[][] getPositions(int glId, int glMask) {
+		long key = ((long)glMask << 32) | (glId & glMask & 0xFFFFFFFFL);
+		int[][] res = queries.get(key);
+		if(res != null) return res;
+
+		res = computePositions(glId & glMask, glMask);
+		if(queries.size() < MAX_QUERIES) queries.putIfAbsent(key, res);
+
+		return res;
+	}
+
+	private int[][] computePositions(int glId, int glMask) {
+		int[][] res = new int[shapeGluids.length][];
+		int[] buf = new int[16];
+
+		for(int s = 0; s < shapeGluids.length; s++) {
+			int[] g = shapeGluids[s];
+			if(buf.length < g.length) buf = new int[g.length];
+
+			int n = 0;
+			for(int i = 0; i < g.length; i++) {
+				if((g[i] & glMask) == glId) buf[n++] = i;
+			}
+
+			res[s] = n == 0 ? NO_POSITIONS : Arrays.copyOf(buf, n);
+		}
+
+		return res;
+	}
+
+	/**
+	 * Determines whether this index contains the lemma with the specified ID.
+	 */
+	boolean containsLemma(int lemmaId) {
+		return lemmaId >= 0 && lemmaId < lexemes.length && lexemes[lemmaId] != -1;
+	}
+
+	/**
+	 * Returns the lemma and the word forms of the lexeme of the specified
+	 * lemma at the specified positions, in lexeme order.
+	 * @param positions Returned by {@link #getPositions}.
+	 */
+	WordEntry[] find(int lemmaId, int[][] positions) {
+		if(!containsLemma(lemmaId)) return EMPTY;
+
+		int l = lexemes[lemmaId];
+		int[] p = positions[shapes[l]];
+		if(p.length == 0) return EMPTY;
+
+		int start = lexemeStart[l];
+		WordEntry[] res = new WordEntry[p.length];
+		for(int i = 0; i < p.length; i++) res[i] = entries[start + p[i]];
+
+		return res;
+	}
+
+	/** The grammatical label UIDs of the lemma and the word forms of a lexeme. */
+	private static final class Shape {
+		final int[] gluids;
+		final int hash;
+
+		Shape(int[] gluids) {
+			this.gluids = gluids;
+			hash = Arrays.hashCode(gluids);
+		}
+
+		@Override
+		public int hashCode() { return hash; }
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Shape && Arrays.equals(gluids, ((Shape)obj).gluids);
+		}
+	}
+}
@@ -0,0 +1,278 @@
+/*
+ *   Copyright (C) 2026 Grigor Iliev <grigor@grigoriliev.com>
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package eu.ideya.lingua.bg.core;
+
+import java.util.Arrays;
+
+/**
+ * Assigns a dense code to each distinct grammatical label UID and keeps
+ * the BTB-TS tag of the label in an array indexed by that code. A lexicon
+ * contains only a few thousand distinct labels, so the tag of a label is
+ * built once and then looked up. The parsed tags, which are the tags of
+ * their labels, are also indexed, so they are converted to labels by
+ * character or byte ranges without allocation.
+ *
+ * <p>The registry is copy-on-write: the lookups read an immutable
+ * table without locking and a new table is published for each new label.
+ */
+final class LabelRegistry {
+	/** The maximum number of registered labels. */
+	static final int MAX_CODES = 1 << 16;
+
+	/** The value returned by the tag lookups when the tag is not known. */
+	static final int NOT_FOUND = Integer.MIN_VALUE;
+
+	private static volatile Table table = new Table(64);
+
+	private LabelRegistry() { }
+
+	/**
+	 * Returns the code of the specified grammatical label UID, registering
+	 * the label if necessary, or <code>-1</code> if the label has no
+	 * lexical class or the registry is full.
+	 */
+	static int getCode(int grammLabelUid) {
+		int code = table.find(grammLabelUid);
+		return code != -1 ? code : register(grammLabelUid);
+	}
+
+	/** Returns the grammatical label UID with the specified code. */
+	static int getGrammLabelUid(int code) { return table.gluids[code]; }
+
+	/** Returns the number of registered labels. */
+	static int size() { return table.size; }
+
+	/**
+	 * Returns the BTB-TS tag of the specified grammatical label UID.
+	 * @throws IllegalArgumentException if the label has no lexical class.
+	 */
+	static String getTag(int grammLabelUid) {
+		int code = getCode(grammLabelUid);
+		if(code == -1) return BTBUtils.computeTag(grammLabelUid);
+		return table.tags[code];
+	}
+
+	/**
+	 * Returns the grammatical label UID of the tag <code>s[start, end)</code>
+	 * added by {@link #addTag}, or {@link #NOT_FOUND}. The trailing dashes
+	 * are ignored.
+	 */
+	static int findTag(CharSequence s, int start, int end) {
+		while(end > start && s.charAt(end - 1) == '-') end--;
+
+		int h = 0;
+		for(int i = start; i < end; i++) h = 31 * h + s.charAt(i);
+
+		Table t = table;
+		int mask = t.tagSlots.length - 1;
+
+		for(int i = Table.hash(h) & mask; t.tagSlots[i] != 0; i = (i + 1) & mask) {
+			int code = t.tagSlots[i] - 1;
+			if(sameTag(t.tags[code], s, start, end)) return t.gluids[code];
+		}
+
+		return NOT_FOUND;
+	}
+
+	/**
+	 * Returns the grammatical label UID of the ASCII tag
+	 * <code>b[off, off + len)</code> added by {@link #addTag},
+	 * or {@link #NOT_FOUND}. The trailing dashes are ignored.
+	 */
+	static int findTag(byte[] b, int off, int len) {
+		while(len > 0 && b[off + len - 1] == '-') len--;
+
+		int h = 0;
+		for(int i = off; i < off + len; i++) h = 31 * h + (b[i] & 0xff);
+
+		Table t = table;
+		int mask = t.tagSlots.length - 1;
+
+		for(int i = Table.hash(h) & mask; t.tagSlots[i] != 0; i = (i + 1) & mask) {
+			int code = t.tagSlots[i] - 1;
+			if(sameTag(t.tags[code], b, off, len)) return t.gluids[code];
+		}
+
+		return NOT_FOUND;
+	}
+
+	/**
+	 * Adds the tag <code>s[start, end)</code>, which is parsed to the
+	 * specified label, so it is found by {@link #findTag}. The tag is
+	 * added only if it is the tag of the label, ignoring the trailing
+	 * dashes. The parser ignores the characters it doesn't know, so
+	 * the other tags may be anything and would fill the registry.
+	 */
+	static void addTag(int grammLabelUid, CharSequence s, int start, int end) {
+		int code = getCode(grammLabelUid);
+		if(code == -1) return;
+
+		while(end > start && s.charAt(end - 1) == '-') end--;
+		if(sameTag(table.tags[code], s, start, end)) addTag(code);
+	}
+
+	private static synchronized void addTag(int code) {
+		Table t = table;
+		String tag = t.tags[code];
+		if(findTag(tag, 0, tag.length()) != NOT_FOUND) return;
+
+		t = t.copy();
+		t.addTag(code);
+		table = t;
+	}
+
+	/**
+	 * Checks whether <code>tag</code> without the trailing dashes
+	 * equals <code>s[start, end)</code>.
+	 */
+	private static boolean sameTag(String tag, CharSequence s, int start, int end) {
+		int n = tag.length();
+		while(n > 0 && tag.charAt(n - 1) == '-') n--;
+		if(n != end - start) return false;
+
+		for(int i = 0; i < n; i++) {
+			if(tag.charAt(i) != s.charAt(start + i)) return false;
+		}
+
+		return true;
+	}
+
+	private static boolean sameTag(String tag, byte[] b, int off, int len) {
+		int n = tag.length();
+		while(n > 0 && tag.charAt(n - 1) == '-') n--;
+		if(n != len) return false;
+
+		for(int i = 0; i < n; i++) {
+			if(tag.charAt(i) != (b[off + i] & 0xff)) return false;
+		}
+
+		return true;
+	}
+
+	private static synchronized int register(int grammLabelUid) {
+		Table t = table;
+		int code = t.find(grammLabelUid);
+		if(code != -1 || t.size == MAX_CODES) return code;
+
+		try {
+			GrammaticalLabel.getLexicalClass(grammLabelUid);
+		} catch(IllegalArgumentException e) {
+			return -1;
+		}
+
+		t = t.copy();
+		code = t.add(grammLabelUid, BTBUtils.computeTag(grammLabelUid));
+		table = t;
+
+		return code;
+	}
+
+	/**
+	 * An open-addressing hash table from grammatical label UID to code,
+	 * followed by the tags of the labels indexed by code, and an
+	 * open-addressing hash table of the added tags.
+	 */
+	private static final class Table {
+		/** The UIDs in the hash table. Valid only if the slot is used. */
+		final int[] keys;
+		/** The codes plus one in the hash table. Zero marks a free slot. */
+		final int[] slots;
+
+		/**
+		 * The codes plus one of the added tags, hashed by the tag
+		 * without the trailing dashes. Zero marks a free slot.
+		 */
+		final int[] tagSlots;
+
+		final int[] gluids;
+		final String[] tags;
+		int size = 0;
+
+		Table(int capacity) {
+			keys = new int[capacity * 2];
+			slots = new int[capacity * 2];
+			tagSlots = new int[capacity * 2];
+			gluids = new int[capacity];
+			tags = new String[capacity];
+		}
+
+		int find(int gluid) {
+			int mask = keys.length - 1;
+
+			for(int i = hash(gluid) & mask; ; i = (i + 1) & mask) {
+				if(slots[i] == 0) return -1;
+				if(keys[i] == gluid) return slots[i] - 1;
+			}
+		}
+
+		int add(int gluid, String tag) {
+			int mask = keys.length - 1;
+			int i = hash(gluid) & mask;
+			while(slots[i] != 0) i = (i + 1) & mask;
+
+			keys[i] = gluid;
+			slots[i] = size + 1;
+			gluids[size] = gluid;
+			tags[size] = tag;
+
+			return size++;
+		}
+
+		/** Adds the tag of the label with the specified code. */
+		void addTag(int code) {
+			String tag = tags[code];
+			int n = tag.length();
+			while(n > 0 && tag.charAt(n - 1) == '-') n--;
+
+			int h = 0;
+			for(int i = 0; i < n; i++) h = 31 * h + tag.charAt(i);
+
+			int mask = tagSlots.length - 1;
+			int i = hash(h) & mask;
+			while(tagSlots[i] != 0) i = (i + 1) & mask;
+
+			tagSlots[i] = code + 1;
+		}
+
+		/** Returns a copy with room for at least one more label. */
+		Table copy() {
+			if(size == gluids.length) {
+				Table t = new Table(gluids.length * 2);
+				for(int i = 0; i < size; i++) t.add(gluids[i], tags[i]);
+				for(int s : tagSlots) if(s != 0) t.addTag(s - 1);
+				return t;
+			}
+
+			Table t = new Table(keys, slots, tagSlots, gluids, tags);
+			t.size = size;
+			return t;
+		}
+
+		private Table(int[] k, int[] s, int[] ts, int[] g, String[] t) {
+			keys = Arrays.copyOf(k, k.length);
+			slots = Arrays.copyOf(s, s.length);
+			tagSlots = Arrays.copyOf(ts, ts.length);
+			gluids = Arrays.copyOf(g, g.length);
+			tags = Arrays.copyOf(t, t.length);
+		}
+
+		private static int hash(int h) {
+			h *= 0x9E3779B9;
+			return h ^ (h >>> 16);
+		}
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ *   Copyright (C) 2026 Grigor Iliev <grigor@grigoriliev.com>
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package eu.ideya.lingua.bg.core;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A size-bounded cache of the lemmas found by
+ * {@link BgDictionary#findLemmas(String, String)}.
+ *
+ * <p>The frequencies of the looked up keys are estimated with a
+ * count-min sketch, which is periodically halved, so old frequencies
+ * fade out (TinyLFU). When the cache is full, the entries are replaced
+ * in clock order, but a new entry is admitted only if its key is looked
+ * up more frequently than the key of the entry it replaces. So rare
+ * words don't push the frequent words out of the cache.
+ *
+ * <p>The lookups don't block. The estimated frequencies are updated
+ * without synchronization and therefore approximately.
+ */
+public class LemmaCache {
+	private static final int SKETCH_DEPTH = 4;
+
+	private final int capacity;
+
+	private final ConcurrentHashMap<BgDictionary.TokenKey, WordEntry[]> map;
+
+	/** The keys in clock order. Guarded by <code>this</code>. */
+	private final BgDictionary.TokenKey[] clock;
+	private int hand = 0;
+
+	/** The count-min sketch. */
+	private final int[] sketch;
+	private final int sketchMask;
+	private volatile int additions = 0;
+	private final int sampleSize;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	LemmaCache(int capacity) {
+		this.capacity = capacity;
+		map = new ConcurrentHashMap<>(capacity * 4 / 3 + 1);
+		clock = new BgDictionary.TokenKey[capacity];
+
+		int width = Integer.highestOneBit(Math.max(capacity, 16) * 2 - 1) * 4;
+		sketch = new int[width * SKETCH_DEPTH];
+		sketchMask = width - 1;
+		sampleSize = capacity * 10;
+	}
+
+	/** Returns the maximum number of entries in this cache. */
+	public int getCapacity() { return capacity; }
+
+	/** Returns the current number of entries in this cache. */
+	public int size() { return map.size(); }
+
+	public long getHitCount() { return hits.sum(); }
+
+	public long getMissCount() { return misses.sum(); }
+
+	/** Returns the number of entries replaced by more frequent ones. */
+	public long getEvictionCount() { return evictions.sum(); }
+
+	/**
+	 * Returns the cached lemmas for the specified key, or
+	 * <code>null</code> if the key is not in this cache.
+	 */
+	WordEntry[] get(BgDictionary.TokenKey key) {
+		recordAccess(key);
+
+		WordEntry[] lemmas = map.get(key);
+
+		if(lemmas == null) misses.increment();
+		else hits.increment();
+
+		return lemmas;
+	}
+
+	/**
+	 * Adds the specified lemmas to this cache, if there is a free slot
+	 * or the key is more frequent than the key of the entry at the
+	 * clock hand. The hand is advanced in both cases.
+	 */
+	synchronized void put(BgDictionary.TokenKey key, WordEntry[] lemmas) {
+		if(map.containsKey(key)) return;
+
+		if(map.size() >= capacity) {
+			BgDictionary.TokenKey victim = clock[hand];
+
+			if(frequency(key) <= frequency(victim)) {
+				// the next candidate is compared with the next entry
+				hand = (hand + 1) % capacity;
+				return;
+			}
+
+			map.remove(victim);
+			evictions.increment();
+		}
+
+		map.put(key, lemmas);
+		clock[hand] = key;
+		hand = (hand + 1) % capacity;
+	}
+
+	/**
+	 * Removes all entries. The estimated frequencies are preserved.
+	 */
+	synchronized void clear() {
+		if(map.isEmpty()) return;
+
+		map.clear();
+		Arrays.fill(clock, null);
+		hand = 0;
+	}
+
+	private void recordAccess(BgDictionary.TokenKey key) {
+		int h = spread(key.hashCode());
+
+		for(int i = 0; i < SKETCH_DEPTH; i++) {
+			int idx = i * (sketchMask + 1) + (indexOf(h, i) & sketchMask);
+			if(sketch[idx] < Integer.MAX_VALUE) sketch[idx]++;
+		}
+
+		if(++additions >= sampleSize) reset();
+	}
+
+	private int frequency(BgDictionary.TokenKey key) {
+		int h = spread(key.hashCode());
+		int f = Integer.MAX_VALUE;
+
+		for(int i = 0; i < SKETCH_DEPTH; i++) {
+			f = Math.min(f, sketch[i * (sketchMask + 1) + (indexOf(h, i) & sketchMask)]);
+		}
+
+		return f;
+	}
+
+	/** Halves all frequencies. */
+	private synchronized void reset() {
+		if(additions < sampleSize) return;
+
+		for(int i = 0; i < sketch.length; i++) sketch[i] >>>= 1;
+		additions = 0;
+	}
+
+	private static int indexOf(int h, int row) {
+		h *= 0x9E3779B9 + row * 0x7F4A7C16;
+		return h ^ (h >>> 16);
+	}
+
+	private static int spread(int h) {
+		h ^= h >>> 17;
+		h *= 0xED5AD4BB;
+		h ^= h >>> 11;
+		return h;
+	}
+}
@@ -56,17 +56,9 @@ public class Lexeme {
 		return true;
 	}
 
+	/**
+	 * @see WordEntryFormatter#format(Lexeme, Appendable)
+	 */
 	@Override
-	public String toString() {
-		final StringBuilder sb = new StringBuilder();
-		final String nl = System.lineSeparator();
-
-		sb.append(lemma.toString()).append(nl);
-
-		for(WordEntry we : forms) {
-			sb.append(we.toString()).append(nl);
-		}
-
-		return sb.toString();
-	}
+	public String toString() { return WordEntryFormatter.toString(this); }
 }
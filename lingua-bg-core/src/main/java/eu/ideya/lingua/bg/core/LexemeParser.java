@@ -0,0 +1,278 @@
+/*
+ *   Copyright (C) 2026 Grigor Iliev <grigor@grigoriliev.com>
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package eu.ideya.lingua.bg.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Parses the text dictionary format, in which each lexeme starts with
+ * an empty line, followed by the lemma and its grammatical label UID,
+ * followed by the word forms and their grammatical label UIDs, each on
+ * a separate line. The input is split in chunks at lexeme boundaries
+ * and the chunks are parsed in parallel.
+ *
+ * <p>The input is parsed directly from UTF-8 encoded bytes, so only the
+ * word strings are allocated and the grammatical label UIDs are
+ * decoded without creating intermediate strings.
+ */
+final class LexemeParser {
+	/** The minimum size of a chunk in bytes. */
+	private static final int MIN_CHUNK_SIZE = 1 << 20;
+
+	/**
+	 * The words parsed from a chunk of the input in their original order.
+	 */
+	static final class Chunk {
+		String[] words = new String[64];
+		int[] gluids = new int[64];
+		boolean[] lemmas = new boolean[64];
+		int size = 0;
+
+		/**
+		 * Determines whether the parsing of the chunk is stopped
+		 * because of invalid input.
+		 */
+		boolean invalid = false;
+
+		private void add(String word, int gluid, boolean lemma) {
+			if(size == words.length) {
+				words = Arrays.copyOf(words, size * 2);
+				gluids = Arrays.copyOf(gluids, size * 2);
+				lemmas = Arrays.copyOf(lemmas, size * 2);
+			}
+
+			words[size] = word;
+			gluids[size] = gluid;
+			lemmas[size++] = lemma;
+		}
+	}
+
+	private LexemeParser() { }
+
+	/**
+	 * Maps the specified file into memory.
+	 */
+	static ByteBuffer map(File f) throws IOException {
+		try(RandomAccessFile raf = new RandomAccessFile(f, "r")) {
+			FileChannel ch = raf.getChannel();
+			return ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+		}
+	}
+
+	/**
+	 * Parses the lexemes in the specified UTF-8 encoded data
+	 * using the specified pool.
+	 * @return The parsed chunks in input order.
+	 */
+	static ArrayList<Chunk> parse(final ByteBuffer data, ForkJoinPool pool) {
+		int length = data.limit();
+		int chunkSize = Math.max(MIN_CHUNK_SIZE, length / (pool.getParallelism() * 4));
+
+		ArrayList<ForkJoinTask<Chunk>> tasks = new ArrayList<>();
+		int start = 0;
+
+		while(start < length) {
+			final int s = start;
+			final int e = nextBoundary(data, Math.min(length, start + chunkSize), length);
+			tasks.add(pool.submit(() -> parse(new Lines(data.duplicate(), s, e))));
+			start = e;
+		}
+
+		ArrayList<Chunk> chunks = new ArrayList<>(tasks.size());
+		for(ForkJoinTask<Chunk> t : tasks) chunks.add(t.join());
+
+		return chunks;
+	}
+
+	/**
+	 * Parses the lemmas in the specified UTF-8 encoded data. Each lemma
+	 * is followed by its grammatical label UID on a separate line.
+	 */
+	static Chunk parseLemmas(ByteBuffer data) {
+		Lines lines = new Lines(data, 0, data.limit());
+		Chunk chunk = new Chunk();
+
+		while(lines.next()) {
+			String word = lines.getWord();
+
+			if(!lines.next()) {
+				System.err.println("Invalid file format!");
+				chunk.invalid = true;
+				break;
+			}
+
+			chunk.add(word, lines.getInt(), true);
+		}
+
+		return chunk;
+	}
+
+	/**
+	 * Returns the position of the first empty line at or after
+	 * <code>pos</code>, or <code>length</code> if there is no such line.
+	 */
+	private static int nextBoundary(ByteBuffer data, int pos, int length) {
+		for(int i = Math.max(pos, 1); i < length; i++) {
+			if(data.get(i - 1) != '\n') continue;
+			if(data.get(i) == '\n') return i;
+			if(data.get(i) == '\r' && i + 1 < length && data.get(i + 1) == '\n') return i;
+		}
+
+		return length;
+	}
+
+	private static Chunk parse(Lines lines) {
+		Chunk chunk = new Chunk();
+
+		boolean hasLine = lines.next();
+
+		while(hasLine) {
+			if(lines.isEmpty()) {
+				boolean hasWord = lines.next();
+				String word = hasWord ? lines.getWord() : null;
+
+				if(!lines.next()) {
+					if(word == null || word.isEmpty()) break;
+					System.err.println("Invalid file format");
+					chunk.invalid = true;
+					break;
+				}
+
+				chunk.add(word, lines.getInt(), true);
+				hasLine = lines.next();
+				continue;
+			}
+
+			String word = lines.getWord();
+
+			if(!lines.next()) {
+				System.err.println("Invalid file format!");
+				chunk.invalid = true;
+				break;
+			}
+
+			chunk.add(word, lines.getInt(), false);
+			hasLine = lines.next();
+		}
+
+		return chunk;
+	}
+
+	/**
+	 * Iterates the lines of a range of UTF-8 encoded bytes. The lines
+	 * are terminated by <code>\n</code> or <code>\r\n</code>.
+	 */
+	private static final class Lines {
+		private final ByteBuffer data;
+		private final int end;
+		private int pos;
+
+		/** The current line is <code>data[lineStart, lineEnd)</code>. */
+		private int lineStart, lineEnd;
+
+		/** Used for decoding the words. */
+		private char[] buf = new char[64];
+
+		Lines(ByteBuffer data, int start, int end) {
+			this.data = data;
+			this.pos = start;
+			this.end = end;
+		}
+
+		/**
+		 * Moves to the next line.
+		 * @return <code>false</code> if there are no more lines.
+		 */
+		boolean next() {
+			if(pos >= end) return false;
+
+			int i = pos;
+			while(i < end && data.get(i) != '\n') i++;
+
+			lineStart = pos;
+			lineEnd = i > pos && data.get(i - 1) == '\r' ? i - 1 : i;
+			pos = i + 1;
+
+			return true;
+		}
+
+		boolean isEmpty() { return lineStart == lineEnd; }
+
+		/** Decodes the current line. */
+		String getWord() {
+			if(buf.length < lineEnd - lineStart) buf = new char[lineEnd - lineStart];
+
+			int n = 0;
+
+			for(int i = lineStart; i < lineEnd; ) {
+				int b = data.get(i++);
+
+				if(b >= 0) {
+					buf[n++] = (char)b;
+				} else if((b & 0xFF) >= 0xC2 && (b & 0xFF) <= 0xDF && i < lineEnd && (data.get(i) & 0xC0) == 0x80) {
+					// two-byte sequences, including the Cyrillic letters;
+					// the overlong leads 0xC0 and 0xC1 are left to the decoder
+					buf[n++] = (char)(((b & 0x1F) << 6) | (data.get(i++) & 0x3F));
+				} else {
+					// the less common sequences are left to the UTF-8 decoder
+					return decode();
+				}
+			}
+
+			return new String(buf, 0, n);
+		}
+
+		private String decode() {
+			byte[] b = new byte[lineEnd - lineStart];
+			for(int i = 0; i < b.length; i++) b[i] = data.get(lineStart + i);
+			return new String(b, StandardCharsets.UTF_8);
+		}
+
+		/**
+		 * Parses the current line as a decimal integer.
+		 * @throws NumberFormatException if the line is not a valid integer.
+		 */
+		int getInt() {
+			int i = lineStart;
+			boolean negative = i < lineEnd && data.get(i) == '-';
+			if(negative) i++;
+
+			if(i == lineEnd || lineEnd - i > 10) return Integer.parseInt(decode());
+
+			long v = 0;
+			for(; i < lineEnd; i++) {
+				int d = data.get(i) - '0';
+				if(d < 0 || d > 9) return Integer.parseInt(decode());
+				v = v * 10 + d;
+			}
+
+			if(negative) v = -v;
+			if(v < Integer.MIN_VALUE || v > Integer.MAX_VALUE) return Integer.parseInt(decode());
+
+			return (int)v;
+		}
+	}
+}
@@ -0,0 +1,131 @@
+/*
+ *   Copyright (C) 2026 Grigor Iliev <grigor@grigoriliev.com>
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package eu.ideya.lingua.bg.core;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * The word entries of a dictionary in ID order together with the
+ * positions of the lemmas. Since each lemma is followed by its word
+ * forms, a lexeme is the slice between the position of its lemma and
+ * the position of the next lemma. Removed lexemes are only marked as
+ * removed.
+ */
+final class LexemeTable {
+	private WordEntry[] entries = new WordEntry[1024];
+	private int size = 0;
+
+	/** The positions of the lemmas in <code>entries</code>. */
+	private int[] lemmaPos = new int[256];
+	private int lemmaCount = 0;
+
+	/** The indexes of the removed lexemes. */
+	private final BitSet removed = new BitSet();
+	private int removedCount = 0;
+
+	LexemeTable() { }
+
+	/**
+	 * @param words The word entries ordered by ID.
+	 */
+	LexemeTable(Collection<WordEntry> words) {
+		entries = new WordEntry[Math.max(words.size(), 16)];
+		for(WordEntry we : words) append(we);
+	}
+
+	/**
+	 * Appends the specified entry.
+	 * @return <code>false</code> if the entry is not appended, because its
+	 * ID is not greater than the ID of the last entry in this table.
+	 */
+	boolean append(WordEntry we) {
+		if(size > 0 && entries[size - 1].id >= we.id) return false;
+
+		if(size == entries.length) entries = Arrays.copyOf(entries, size * 2);
+
+		if(we.isLemma()) {
+			if(lemmaCount == lemmaPos.length) lemmaPos = Arrays.copyOf(lemmaPos, lemmaCount * 2);
+			lemmaPos[lemmaCount++] = size;
+		}
+
+		entries[size++] = we;
+		return true;
+	}
+
+	/**
+	 * Returns the index of the first lexeme at or after the specified
+	 * index, which is not removed, or <code>-1</code> if there is no
+	 * such lexeme.
+	 */
+	int nextLexeme(int i) {
+		if(i >= lemmaCount) return -1;
+
+		i = removed.nextClearBit(i);
+		return i < lemmaCount ? i : -1;
+	}
+
+	/**
+	 * Marks the lexeme whose lemma has the specified ID as removed.
+	 * @return <code>false</code> if there is no such lexeme.
+	 */
+	boolean remove(int lemmaId) {
+		int i = indexOfLemma(lemmaId);
+		if(i == -1) return false;
+
+		removed.set(i);
+		removedCount++;
+		return true;
+	}
+
+	/** Returns the number of the removed lexemes. */
+	int getRemovedCount() { return removedCount; }
+
+	/** Returns the number of lexemes in this table, including the removed ones. */
+	int getLexemeCount() { return lemmaCount; }
+
+	/** Returns the lemma of the lexeme at the specified index. */
+	WordEntry getLemma(int i) { return entries[lemmaPos[i]]; }
+
+	/** Returns the lexeme at the specified index. */
+	Lexeme getLexeme(int i) {
+		int start = lemmaPos[i];
+		int end = i + 1 < lemmaCount ? lemmaPos[i + 1] : size;
+
+		return new Lexeme(entries[start], Arrays.copyOfRange(entries, start + 1, end));
+	}
+
+	/**
+	 * Returns the index of the lexeme whose lemma has the specified ID,
+	 * or <code>-1</code> if there is no such lemma or it is removed.
+	 */
+	int indexOfLemma(int id) {
+		int lo = 0, hi = lemmaCount - 1;
+
+		while(lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			int midId = entries[lemmaPos[mid]].id;
+
+			if(midId < id) lo = mid + 1;
+			else if(midId > id) hi = mid - 1;
+			else return removed.get(mid) ? -1 : mid;
+		}
+
+		return -1;
+	}
+}
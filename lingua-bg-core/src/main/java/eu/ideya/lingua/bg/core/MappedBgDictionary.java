@@ -0,0 +1,487 @@
+/*
+ *   Copyright (C) 2026 Grigor Iliev <grigor@grigoriliev.com>
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package eu.ideya.lingua.bg.core;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only dictionary, which is queried in place from a memory-mapped
+ * binary dictionary file. Opening the file does not deserialize any
+ * objects, so the startup time is bounded by the page faults and
+ * the mapped pages can be shared by all processes using the same file.
+ *
+ * <p>The file is little-endian and consists of a fixed size header
+ * followed by the entry ID, lemma ID, grammatical label UID and word
+ * index columns, the word offsets, the entries grouped by word,
+ * an open addressing hash index over the words and finally
+ * the UTF-8 encoded words.
+ * @see BgDictionarySnapshot#writeToFile(String)
+ */
+public class MappedBgDictionary {
+	/** The magic number of the binary dictionary files (<code>LBGD</code>). */
+	static final int MAGIC = 0x4447424C;
+
+	/** The current version of the binary dictionary format. */
+	static final int VERSION = 1;
+
+	static final int HEADER_SIZE = 64;
+
+	// header fields
+	private static final int H_MAGIC          = 0;
+	private static final int H_VERSION        = 4;
+	private static final int H_ENTRY_COUNT    = 8;
+	private static final int H_WORD_COUNT     = 12;
+	private static final int H_IDS            = 16;
+	private static final int H_LEMMA_IDS      = 20;
+	private static final int H_GLUIDS         = 24;
+	private static final int H_WORD_IDX       = 28;
+	private static final int H_WORD_OFFSETS   = 32;
+	private static final int H_STRINGS        = 36;
+	private static final int H_BY_WORD        = 40;
+	private static final int H_GROUP_START    = 44;
+	private static final int H_HASH           = 48;
+	private static final int H_HASH_SIZE      = 52;
+	private static final int H_FILE_LENGTH    = 56;
+
+	private final ByteBuffer buf;
+
+	private final int entryCount;
+	private final int wordCount;
+
+	private final int idsOff;
+	private final int lemmaIdsOff;
+	private final int gluidsOff;
+	private final int wordIdxOff;
+	private final int wordOffsetsOff;
+	private final int stringsOff;
+	private final int byWordOff;
+	private final int groupStartOff;
+	private final int hashOff;
+	private final int hashMask;
+
+	private MappedBgDictionary(ByteBuffer buf) {
+		this.buf = buf;
+
+		if(buf.capacity() < HEADER_SIZE || buf.getInt(H_MAGIC) != MAGIC) {
+			throw new IllegalArgumentException(i18n().getError("MappedBgDictionary.invalidFormat"));
+		}
+
+		int version = buf.getInt(H_VERSION);
+		if(version != VERSION) {
+			String s = String.valueOf(version);
+			throw new IllegalArgumentException(i18n().getError("MappedBgDictionary.unsupportedVersion", s));
+		}
+
+		if(buf.getInt(H_FILE_LENGTH) != buf.capacity()) {
+			throw new IllegalArgumentException(i18n().getError("MappedBgDictionary.invalidFormat"));
+		}
+
+		entryCount = buf.getInt(H_ENTRY_COUNT);
+		wordCount = buf.getInt(H_WORD_COUNT);
+		idsOff = buf.getInt(H_IDS);
+		lemmaIdsOff = buf.getInt(H_LEMMA_IDS);
+		gluidsOff = buf.getInt(H_GLUIDS);
+		wordIdxOff = buf.getInt(H_WORD_IDX);
+		wordOffsetsOff = buf.getInt(H_WORD_OFFSETS);
+		stringsOff = buf.getInt(H_STRINGS);
+		byWordOff = buf.getInt(H_BY_WORD);
+		groupStartOff = buf.getInt(H_GROUP_START);
+		hashOff = buf.getInt(H_HASH);
+		hashMask = buf.getInt(H_HASH_SIZE) - 1;
+	}
+
+	/**
+	 * Maps the specified binary dictionary file into memory.
+	 * @throws IllegalArgumentException if the specified file is not
+	 * a valid binary dictionary file.
+	 */
+	public static MappedBgDictionary open(String file) throws IOException {
+		File f = new File(file);
+		if(!f.exists() || !f.isFile() || !f.canRead()) {
+			String s = f.getAbsolutePath();
+			String err = i18n().getError("BgDictionary.invalidFile", s);
+			throw new IllegalArgumentException(err);
+		}
+
+		try(RandomAccessFile raf = new RandomAccessFile(f, "r")) {
+			FileChannel ch = raf.getChannel();
+			ByteBuffer b = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+			return new MappedBgDictionary(b.order(ByteOrder.LITTLE_ENDIAN));
+		}
+	}
+
+	/**
+	 * Checks whether the specified file starts with the magic number
+	 * of the binary dictionary files.
+	 */
+	static boolean isBinaryFile(File f) {
+		try(RandomAccessFile raf = new RandomAccessFile(f, "r")) {
+			if(raf.length() < HEADER_SIZE) return false;
+			return Integer.reverseBytes(raf.readInt()) == MAGIC;
+		} catch(IOException e) {
+			return false;
+		}
+	}
+
+	/** Returns the number of distinct words in this dictionary. */
+	public int size() { return wordCount; }
+
+	public int getTokenCount() { return entryCount; }
+
+	/**
+	 * Returns all words equals to the specified string.
+	 * An empty array is returned if there are no such words.
+	 */
+	public WordEntry[] getWords(String s) {
+		int w = findWord(s);
+		if(w == -1) return new WordEntry[0];
+
+		int start = groupStart(w);
+		WordEntry[] res = new WordEntry[groupStart(w + 1) - start];
+
+		for(int i = 0; i < res.length; i++) {
+			res[i] = getEntry(byWord(start + i), s);
+		}
+
+		return res;
+	}
+
+	/**
+	 * Returns a list of all words equals to the specified string.
+	 */
+	public ArrayList<WordEntry> findExactMatches(String s) {
+		return new ArrayList<>(Arrays.asList(getWords(s)));
+	}
+
+	/**
+	 * Returns all lemmas which have word form <code>wordForm</code>.
+	 * If the specified word is a lemma, it is also included.
+	 * An empty array is returned if no lemmas are found.
+	 */
+	public WordEntry[] findLemmas(String wordForm) {
+		return findLemmas(wordForm, null);
+	}
+
+	/**
+	 * Returns all lemmas which have word form <code>wordForm</code>.
+	 * If the specified word is a lemma, it is also included.
+	 * An empty array is returned if no lemmas are found.
+	 * @param tag If not <code>null</code>, words with different tags
+	 * (in terms of {@link BTBUtils#differentTags}) are ignored.
+	 */
+	public WordEntry[] findLemmas(String wordForm, String tag) {
+		int w = findWord(wordForm);
+		if(w == -1) return new WordEntry[0];
+
+		int start = groupStart(w), end = groupStart(w + 1);
+		int[] lemmas = new int[end - start];
+		int count = 0;
+		TagPattern p = tag == null ? null : TagPattern.compile(tag);
+
+		for(int k = start; k < end; k++) {
+			int i = byWord(k);
+
+			if(p != null && !p.matches(gluid(i))) continue;
+
+			int l = lemmaId(i) == -1 ? i : indexOf(lemmaId(i));
+			if(l == -1) continue;
+
+			// two different word forms (from same lexeme) can be
+			// represented by same string, so we need to check
+			boolean found = false;
+			for(int j = 0; j < count; j++) {
+				if(lemmas[j] == l) {
+					found = true;
+					break;
+				}
+			}
+
+			if(!found) lemmas[count++] = l;
+		}
+
+		WordEntry[] res = new WordEntry[count];
+		for(int j = 0; j < count; j++) res[j] = getEntry(lemmas[j]);
+
+		return res;
+	}
+
+	/**
+	 * Returns the word entry with ID <code>id</code>, or <code>null</code>
+	 * if a word entry with the specified ID does not exist.
+	 */
+	public WordEntry getWordEntryById(int id) {
+		int i = indexOf(id);
+		return i == -1 ? null : getEntry(i);
+	}
+
+	/**
+	 * Returns the lexeme for the specified lemma.
+	 * @throws IllegalArgumentException if the specified word entry is not
+	 * a lemma from this dictionary or if it is not a lemma at all.
+	 */
+	public Lexeme getLexeme(WordEntry lemma) {
+		if(!lemma.isLemma()) {
+			String s = lemma.toString();
+			throw new IllegalArgumentException(i18n().getError("BgDictionary.notLemma", s));
+		}
+
+		int i = indexOf(lemma.id);
+		if(i == -1 || lemmaId(i) != -1) {
+			String s = lemma.toString();
+			throw new IllegalArgumentException(i18n().getError("BgDictionary.notFromDict", s));
+		}
+
+		return getLexeme(i);
+	}
+
+	private Lexeme getLexeme(int lemmaIdx) {
+		int end = lemmaIdx + 1;
+		while(end < entryCount && lemmaId(end) != -1) end++;
+
+		WordEntry[] forms = new WordEntry[end - lemmaIdx - 1];
+		for(int i = 0; i < forms.length; i++) forms[i] = getEntry(lemmaIdx + 1 + i);
+
+		return new Lexeme(getEntry(lemmaIdx), forms);
+	}
+
+	private int id(int i) { return buf.getInt(idsOff + (i << 2)); }
+
+	private int lemmaId(int i) { return buf.getInt(lemmaIdsOff + (i << 2)); }
+
+	private int gluid(int i) { return buf.getInt(gluidsOff + (i << 2)); }
+
+	private int wordIdx(int i) { return buf.getInt(wordIdxOff + (i << 2)); }
+
+	private int wordOffset(int w) { return buf.getInt(wordOffsetsOff + (w << 2)); }
+
+	private int byWord(int k) { return buf.getInt(byWordOff + (k << 2)); }
+
+	private int groupStart(int w) { return buf.getInt(groupStartOff + (w << 2)); }
+
+	/**
+	 * Returns the index of the entry with the specified ID, or <code>-1</code>.
+	 */
+	private int indexOf(int id) {
+		int lo = 0, hi = entryCount - 1;
+
+		while(lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			int v = id(mid);
+
+			if(v < id) lo = mid + 1;
+			else if(v > id) hi = mid - 1;
+			else return mid;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Returns the index of the specified word, or <code>-1</code>
+	 * if there is no such word.
+	 */
+	private int findWord(String s) {
+		byte[] b = s.getBytes(StandardCharsets.UTF_8);
+		int slot = hash(b, 0, b.length) & hashMask;
+
+		while(true) {
+			int w = buf.getInt(hashOff + (slot << 2)) - 1;
+			if(w == -1) return -1;
+			if(equalsWord(w, b)) return w;
+			slot = (slot + 1) & hashMask;
+		}
+	}
+
+	private boolean equalsWord(int w, byte[] b) {
+		int off = wordOffset(w);
+		if(wordOffset(w + 1) - off != b.length) return false;
+
+		off += stringsOff;
+		for(int i = 0; i < b.length; i++) {
+			if(buf.get(off + i) != b[i]) return false;
+		}
+
+		return true;
+	}
+
+	private String getWord(int w) {
+		int off = wordOffset(w);
+		int len = wordOffset(w + 1) - off;
+		byte[] b = new byte[len];
+
+		for(int i = 0; i < len; i++) b[i] = buf.get(stringsOff + off + i);
+
+		return new String(b, StandardCharsets.UTF_8);
+	}
+
+	private WordEntry getEntry(int i) {
+		return getEntry(i, getWord(wordIdx(i)));
+	}
+
+	private WordEntry getEntry(int i, String word) {
+		return new WordEntry(word, id(i), lemmaId(i), gluid(i));
+	}
+
+	/** FNV-1a hash of the specified UTF-8 encoded word. */
+	static int hash(byte[] b, int off, int len) {
+		int h = 0x811C9DC5;
+
+		for(int i = off; i < off + len; i++) {
+			h ^= b[i] & 0xFF;
+			h *= 0x01000193;
+		}
+
+		return h;
+	}
+
+	/**
+	 * Writes the specified columns in the binary dictionary format.
+	 * The words are expected to be distinct and the word groups
+	 * to be ordered as the words.
+	 */
+	static void write (
+		String file, int[] ids, int[] lemmaIds, int[] gluids, int[] wordIdx,
+		String[] words, int[] byWord, int[] groupStart
+	) throws IOException {
+		int n = ids.length;
+		int w = words.length;
+
+		byte[][] utf8 = new byte[w][];
+		int stringsSize = 0;
+
+		for(int i = 0; i < w; i++) {
+			utf8[i] = words[i].getBytes(StandardCharsets.UTF_8);
+			stringsSize += utf8[i].length;
+		}
+
+		int hashSize = 2;
+		while(hashSize < w * 2) hashSize <<= 1;
+
+		int[] hashTable = new int[hashSize];
+		for(int i = 0; i < w; i++) {
+			int slot = hash(utf8[i], 0, utf8[i].length) & (hashSize - 1);
+			while(hashTable[slot] != 0) slot = (slot + 1) & (hashSize - 1);
+			hashTable[slot] = i + 1;
+		}
+
+		int[] wordOffsets = new int[w + 1];
+		for(int i = 0; i < w; i++) wordOffsets[i + 1] = wordOffsets[i] + utf8[i].length;
+
+		int off = HEADER_SIZE;
+		int idsOff = off;         off += n << 2;
+		int lemmaIdsOff = off;    off += n << 2;
+		int gluidsOff = off;      off += n << 2;
+		int wordIdxOff = off;     off += n << 2;
+		int wordOffsetsOff = off; off += (w + 1) << 2;
+		int byWordOff = off;      off += n << 2;
+		int groupStartOff = off;  off += (w + 1) << 2;
+		int hashOff = off;        off += hashSize << 2;
+		int stringsOff = off;     off += stringsSize;
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(H_MAGIC, MAGIC);
+		header.putInt(H_VERSION, VERSION);
+		header.putInt(H_ENTRY_COUNT, n);
+		header.putInt(H_WORD_COUNT, w);
+		header.putInt(H_IDS, idsOff);
+		header.putInt(H_LEMMA_IDS, lemmaIdsOff);
+		header.putInt(H_GLUIDS, gluidsOff);
+		header.putInt(H_WORD_IDX, wordIdxOff);
+		header.putInt(H_WORD_OFFSETS, wordOffsetsOff);
+		header.putInt(H_STRINGS, stringsOff);
+		header.putInt(H_BY_WORD, byWordOff);
+		header.putInt(H_GROUP_START, groupStartOff);
+		header.putInt(H_HASH, hashOff);
+		header.putInt(H_HASH_SIZE, hashSize);
+		header.putInt(H_FILE_LENGTH, off);
+
+		try(OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 1 << 16)) {
+			out.write(header.array());
+
+			writeInts(out, ids);
+			writeInts(out, lemmaIds);
+			writeInts(out, gluids);
+			writeInts(out, wordIdx);
+			writeInts(out, wordOffsets);
+			writeInts(out, byWord);
+			writeInts(out, groupStart);
+			writeInts(out, hashTable);
+
+			for(byte[] b : utf8) out.write(b);
+		}
+	}
+
+	private static void writeInts(OutputStream out, int[] a) throws IOException {
+		ByteBuffer b = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+
+		for(int v : a) {
+			if(!b.hasRemaining()) {
+				out.write(b.array(), 0, b.position());
+				b.clear();
+			}
+
+			b.putInt(v);
+		}
+
+		out.write(b.array(), 0, b.position());
+	}
+
+	private class Lexemes implements Iterable<Lexeme>, Iterator<Lexeme> {
+		int next = 0;
+
+		@Override
+		public Iterator<Lexeme> iterator() {
+			return new Lexemes();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < entryCount;
+		}
+
+		@Override
+		public Lexeme next() {
+			if(next >= entryCount) throw new NoSuchElementException();
+
+			Lexeme l = getLexeme(next);
+			next += l.forms.length + 1;
+
+			return l;
+		}
+	}
+
+	private final Iterable<Lexeme> lexemes = new Lexemes();
+
+	public Iterable<Lexeme> lexemes() {
+		return lexemes;
+	}
+
+	private static I18n i18n() { return I18n.getInstance(); }
+}
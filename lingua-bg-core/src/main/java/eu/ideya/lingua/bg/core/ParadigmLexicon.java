@@ -0,0 +1,578 @@
+/*
+ *   Copyright (C) 2026 Grigor Iliev <grigor@grigoriliev.com>
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package eu.ideya.lingua.bg.core;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * An immutable lexicon, in which the lexemes are stored as a lemma and
+ * a paradigm instead of a list of word forms. The lexemes of the same
+ * BG grammatical type inflect in the same way, so they share paradigms.
+ *
+ * <p>A paradigm has a slot for the lemma and for each word form. Each slot
+ * has a grammatical label UID and a rule, which removes a number of
+ * characters from the end of the lemma and appends a suffix. The
+ * paradigms are learned from the lexemes. A lexeme whose paradigm is
+ * rare is stored with a frequent paradigm of the same labels instead and
+ * the word forms, which the paradigm doesn't generate, are stored as
+ * exceptions.
+ *
+ * <p>The word forms are generated when a lexeme is accessed. The lexemes
+ * are kept in their original order and the word forms in their original
+ * order within the lexeme, so {@link #exportToFile(String)} writes the
+ * same text as {@link BgDictionary#exportToFile(String)}. The word IDs
+ * are kept as well: the IDs of the word forms usually follow the ID of
+ * their lemma, so only the IDs of the other lexemes are stored.
+ *
+ * <p>The lexemes can be looked up by lemma and converted back to a
+ * {@link BgDictionary}. The word forms are not indexed, because they
+ * would take more memory than the paradigms save.
+ * @see BgDictionary#toParadigmLexicon()
+ */
+public final class ParadigmLexicon {
+	/**
+	 * A paradigm used by fewer lexemes is replaced by a similar
+	 * frequent paradigm, if there is one.
+	 */
+	private static final int MIN_PARADIGM_USES = 2;
+
+	/** The start of the slots of each paradigm, followed by the slot count. */
+	private final int[] paradigmStart;
+
+	/** The grammatical label UID of each slot. */
+	private final int[] slotGluids;
+
+	/** The number of characters removed from the end of the lemma by each slot. */
+	private final int[] slotStrips;
+
+	/** The suffix appended by each slot. */
+	private final String[] slotSuffixes;
+
+	private final String[] lemmas;
+
+	/** The ID of the lemma of each lexeme. */
+	private final int[] lemmaIds;
+
+	/** The paradigm of each lexeme. */
+	private final int[] paradigms;
+
+	/**
+	 * The start of the word form IDs of each lexeme, followed by their
+	 * count. No IDs are stored if the IDs follow the ID of the lemma.
+	 */
+	private final int[] formIdStart;
+
+	/** The word form IDs of the lexemes whose IDs are not contiguous. */
+	private final int[] formIds;
+
+	/** The indexes of the lexemes sorted by lemma. */
+	private final int[] byLemma;
+
+	/** The start of the exceptions of each lexeme, followed by the exception count. */
+	private final int[] exceptionStart;
+
+	/** The slot of each exception, ascending within a lexeme. */
+	private final int[] exceptionSlots;
+
+	/** The word form of each exception. */
+	private final String[] exceptionWords;
+
+	private final int formCount;
+
+	private ParadigmLexicon(Builder b) {
+		int n = b.lexemes.size();
+
+		lemmas = new String[n];
+		lemmaIds = new int[n];
+		paradigms = new int[n];
+		exceptionStart = new int[n + 1];
+		formIdStart = new int[n + 1];
+
+		// the paradigms are numbered in order of first use
+		HashMap<Paradigm, Integer> ids = new HashMap<>();
+		ArrayList<Paradigm> used = new ArrayList<>();
+		ArrayList<String> words = new ArrayList<>();
+		int[] slots = new int[16];
+		int[] fids = new int[16];
+		int exceptions = 0, forms = 0, idCount = 0;
+
+		for(int i = 0; i < n; i++) {
+			Builder.Entry e = b.lexemes.get(i);
+			Paradigm p = b.choose(e);
+
+			Integer id = ids.get(p);
+			if(id == null) {
+				id = used.size();
+				ids.put(p, id);
+				used.add(p);
+			}
+
+			lemmas[i] = e.words[0];
+			lemmaIds[i] = e.lemmaId;
+			paradigms[i] = id;
+			exceptionStart[i] = exceptions;
+			formIdStart[i] = idCount;
+			forms += e.words.length;
+
+			if(e.formIds != null) {
+				if(idCount + e.formIds.length > fids.length) {
+					fids = Arrays.copyOf(fids, Math.max(fids.length * 2, idCount + e.formIds.length));
+				}
+
+				System.arraycopy(e.formIds, 0, fids, idCount, e.formIds.length);
+				idCount += e.formIds.length;
+			}
+
+			for(int s = 1; s < e.words.length; s++) {
+				if(p.strips[s] == e.paradigm.strips[s] && p.suffixes[s].equals(e.paradigm.suffixes[s])) {
+					continue;
+				}
+
+				if(exceptions == slots.length) slots = Arrays.copyOf(slots, exceptions * 2);
+				slots[exceptions++] = s;
+				words.add(e.words[s]);
+			}
+		}
+
+		exceptionStart[n] = exceptions;
+		formIdStart[n] = idCount;
+		formIds = Arrays.copyOf(fids, idCount);
+		exceptionSlots = Arrays.copyOf(slots, exceptions);
+		exceptionWords = words.toArray(new String[0]);
+		formCount = forms;
+
+		paradigmStart = new int[used.size() + 1];
+		int slotCount = 0;
+		for(int p = 0; p < used.size(); p++) {
+			paradigmStart[p] = slotCount;
+			slotCount += used.get(p).gluids.length;
+		}
+		paradigmStart[used.size()] = slotCount;
+
+		slotGluids = new int[slotCount];
+		slotStrips = new int[slotCount];
+		slotSuffixes = new String[slotCount];
+
+		for(int p = 0; p < used.size(); p++) {
+			Paradigm para = used.get(p);
+			System.arraycopy(para.gluids, 0, slotGluids, paradigmStart[p], para.gluids.length);
+			System.arraycopy(para.strips, 0, slotStrips, paradigmStart[p], para.strips.length);
+			System.arraycopy(para.suffixes, 0, slotSuffixes, paradigmStart[p], para.suffixes.length);
+		}
+
+		Integer[] order = new Integer[n];
+		for(int i = 0; i < n; i++) order[i] = i;
+		Arrays.sort(order, (x, y) -> lemmas[x].compareTo(lemmas[y]));
+
+		byLemma = new int[n];
+		for(int i = 0; i < n; i++) byLemma[i] = order[i];
+	}
+
+	/**
+	 * Creates a lexicon with the lexemes of the specified dictionary.
+	 */
+	static ParadigmLexicon create(Iterable<Lexeme> lexemes) {
+		Builder b = new Builder();
+		ArrayList<String> words = new ArrayList<>();
+		int[] gluids = new int[64];
+
+		for(Lexeme l : lexemes) {
+			words.clear();
+			if(gluids.length <= l.forms.length) gluids = new int[l.forms.length * 2 + 1];
+
+			words.add(l.lemma.word);
+			gluids[0] = l.lemma.grammLabelUid;
+
+			int[] ids = null;
+			for(int i = 0; i < l.forms.length; i++) {
+				words.add(l.forms[i].word);
+				gluids[i + 1] = l.forms[i].grammLabelUid;
+
+				// the IDs of forms added later don't follow the lemma
+				if(ids == null && l.forms[i].id != l.lemma.id + i + 1) {
+					ids = new int[l.forms.length];
+					for(int j = 0; j < l.forms.length; j++) ids[j] = l.forms[j].id;
+				}
+			}
+
+			b.add(words.toArray(new String[0]), Arrays.copyOf(gluids, words.size()), l.lemma.id, ids);
+		}
+
+		return new ParadigmLexicon(b);
+	}
+
+	/**
+	 * Imports the lexemes from the specified file in the text dictionary
+	 * format. The word IDs are assigned as if the lexemes were imported
+	 * into an empty {@link BgDictionary}.
+	 * @see BgDictionary#importFromFile(String)
+	 */
+	public static ParadigmLexicon importFromFile(String file) throws IOException {
+		File f = new File(file);
+		if(!f.exists() || !f.isFile() || !f.canRead()) {
+			String s = f.getAbsolutePath();
+			String err = i18n().getError("BgDictionary.invalidFile", s);
+			throw new IllegalArgumentException(err);
+		}
+
+		Builder b = new Builder();
+		ArrayList<String> words = new ArrayList<>();
+		int[] gluids = new int[64];
+		int id = 1, lemmaId = 0;
+
+		for(LexemeParser.Chunk chunk : LexemeParser.parse(LexemeParser.map(f), ForkJoinPool.commonPool())) {
+			for(int i = 0; i < chunk.size; i++, id++) {
+				if(chunk.lemmas[i]) {
+					if(!words.isEmpty()) {
+						b.add(words.toArray(new String[0]), Arrays.copyOf(gluids, words.size()), lemmaId, null);
+						words.clear();
+					}
+
+					lemmaId = id;
+				} else if(words.isEmpty()) {
+					String err = i18n().getError("BgDictionary.invalidFile", f.getAbsolutePath());
+					throw new IllegalArgumentException(err);
+				}
+
+				if(words.size() == gluids.length) gluids = Arrays.copyOf(gluids, gluids.length * 2);
+				gluids[words.size()] = chunk.gluids[i];
+				words.add(chunk.words[i]);
+			}
+
+			if(chunk.invalid) break;
+		}
+
+		if(!words.isEmpty()) b.add(words.toArray(new String[0]), Arrays.copyOf(gluids, words.size()), lemmaId, null);
+
+		return new ParadigmLexicon(b);
+	}
+
+	/** Returns the number of lexemes in this lexicon. */
+	public int size() { return lemmas.length; }
+
+	/** Returns the number of words in this lexicon, including the lemmas. */
+	public int getTokenCount() { return formCount; }
+
+	/** Returns the number of distinct paradigms. */
+	public int getParadigmCount() { return paradigmStart.length - 1; }
+
+	/** Returns the number of word forms stored as exceptions. */
+	public int getExceptionCount() { return exceptionWords.length; }
+
+	/** Returns the lemma of the lexeme at the specified index. */
+	public WordEntry getLemma(int i) {
+		return new WordEntry(lemmas[i], lemmaIds[i], -1, slotGluids[paradigmStart[paradigms[i]]]);
+	}
+
+	/** Returns the lexeme at the specified index with its word forms. */
+	public Lexeme getLexeme(int i) {
+		int start = paradigmStart[paradigms[i]];
+		WordEntry[] forms = new WordEntry[paradigmStart[paradigms[i] + 1] - start - 1];
+
+		boolean contiguous = formIdStart[i] == formIdStart[i + 1];
+
+		for(int s = 1; s <= forms.length; s++) {
+			int id = contiguous ? lemmaIds[i] + s : formIds[formIdStart[i] + s - 1];
+			forms[s - 1] = new WordEntry(getWord(i, s), id, lemmaIds[i], slotGluids[start + s]);
+		}
+
+		return new Lexeme(getLemma(i), forms);
+	}
+
+	/**
+	 * Returns the lexemes with the specified lemma, in their original
+	 * order, or an empty array if there are no such lexemes.
+	 */
+	public Lexeme[] findLexemes(String lemma) {
+		int lo = 0, hi = byLemma.length;
+
+		// the first lexeme whose lemma is not less than the specified one
+		while(lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if(lemmas[byLemma[mid]].compareTo(lemma) < 0) lo = mid + 1;
+			else hi = mid;
+		}
+
+		int end = lo;
+		while(end < byLemma.length && lemmas[byLemma[end]].equals(lemma)) end++;
+
+		Lexeme[] res = new Lexeme[end - lo];
+		for(int k = lo; k < end; k++) res[k - lo] = getLexeme(byLemma[k]);
+
+		return res;
+	}
+
+	/**
+	 * Returns a new dictionary with the lexemes of this lexicon.
+	 * The words keep their IDs.
+	 */
+	public BgDictionary toDictionary() throws Exception {
+		BgDictionary d = new BgDictionary();
+
+		for(int i = 0; i < lemmas.length; i++) {
+			Lexeme l = getLexeme(i);
+			d.addWord(l.lemma, false);
+			for(WordEntry we : l.forms) d.addWord(we, false);
+		}
+
+		return d;
+	}
+
+	/**
+	 * Returns the word in the specified slot of the lexeme at the
+	 * specified index. Slot zero is the lemma.
+	 */
+	private String getWord(int i, int slot) {
+		for(int e = exceptionStart[i]; e < exceptionStart[i + 1]; e++) {
+			if(exceptionSlots[e] == slot) return exceptionWords[e];
+			if(exceptionSlots[e] > slot) break;
+		}
+
+		int s = paradigmStart[paradigms[i]] + slot;
+		String lemma = lemmas[i];
+
+		return lemma.substring(0, lemma.length() - slotStrips[s]).concat(slotSuffixes[s]);
+	}
+
+	/**
+	 * Writes the lexemes to the specified output in the text format
+	 * of {@link BgDictionary#exportToFile(String)}.
+	 */
+	public void writeTo(Appendable out) throws IOException {
+		for(int i = 0; i < lemmas.length; i++) {
+			int start = paradigmStart[paradigms[i]];
+			int end = paradigmStart[paradigms[i] + 1];
+
+			out.append('\n');
+			for(int s = 0; s < end - start; s++) {
+				out.append(s == 0 ? lemmas[i] : getWord(i, s)).append('\n');
+				out.append(String.valueOf(slotGluids[start + s])).append('\n');
+			}
+		}
+	}
+
+	/**
+	 * Writes the lexemes to the specified file in the text format
+	 * of {@link BgDictionary#exportToFile(String)}.
+	 */
+	public void exportToFile(String file) throws IOException {
+		FileOutputStream fos = new FileOutputStream(file);
+
+		try(Writer w = new BufferedWriter(new OutputStreamWriter(fos, StandardCharsets.UTF_8), 1 << 16)) {
+			writeTo(w);
+		}
+	}
+
+	private class Lexemes implements Iterable<Lexeme>, Iterator<Lexeme> {
+		int next = 0;
+
+		@Override
+		public Iterator<Lexeme> iterator() {
+			return new Lexemes();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < lemmas.length;
+		}
+
+		@Override
+		public Lexeme next() {
+			if(next >= lemmas.length) throw new NoSuchElementException();
+			return getLexeme(next++);
+		}
+	}
+
+	private final Iterable<Lexeme> lexemes = new Lexemes();
+
+	/** Returns the lexemes in their original order. */
+	public Iterable<Lexeme> lexemes() {
+		return lexemes;
+	}
+
+	/**
+	 * The grammatical label UIDs and the rules of the slots of a paradigm.
+	 */
+	private static final class Paradigm {
+		final int[] gluids;
+		final int[] strips;
+		final String[] suffixes;
+		final int hash;
+
+		Paradigm(int[] gluids, int[] strips, String[] suffixes) {
+			this.gluids = gluids;
+			this.strips = strips;
+			this.suffixes = suffixes;
+
+			int h = Arrays.hashCode(gluids);
+			h = 31 * h + Arrays.hashCode(strips);
+			hash = 31 * h + Arrays.hashCode(suffixes);
+		}
+
+		/** Returns the number of slots with different rules. */
+		int diff(Paradigm p) {
+			int n = 0;
+			for(int s = 1; s < strips.length; s++) {
+				if(strips[s] != p.strips[s] || !suffixes[s].equals(p.suffixes[s])) n++;
+			}
+
+			return n;
+		}
+
+		@Override
+		public int hashCode() { return hash; }
+
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof Paradigm)) return false;
+
+			Paradigm p = (Paradigm)obj;
+			return hash == p.hash && Arrays.equals(gluids, p.gluids) &&
+				Arrays.equals(strips, p.strips) && Arrays.equals(suffixes, p.suffixes);
+		}
+	}
+
+	/**
+	 * Collects the lexemes with their own paradigms and counts the uses
+	 * of each paradigm.
+	 */
+	private static final class Builder {
+		static final class Entry {
+			final String[] words;
+			final int lemmaId;
+			/** <code>null</code> if the IDs follow the ID of the lemma. */
+			final int[] formIds;
+			final Paradigm paradigm;
+
+			Entry(String[] words, int lemmaId, int[] formIds, Paradigm paradigm) {
+				this.words = words;
+				this.lemmaId = lemmaId;
+				this.formIds = formIds;
+				this.paradigm = paradigm;
+			}
+		}
+
+		final ArrayList<Entry> lexemes = new ArrayList<>();
+
+		/**
+		 * The number of uses of each paradigm and
+		 * the index of the first lexeme using it.
+		 */
+		final HashMap<Paradigm, int[]> uses = new HashMap<>();
+
+		/** The frequent paradigms by labels, built when first needed. */
+		HashMap<Labels, ArrayList<Paradigm>> frequent = null;
+
+		/** Shares the equal suffixes. */
+		final HashMap<String, String> suffixes = new HashMap<>();
+
+		void add(String[] words, int[] gluids, int lemmaId, int[] formIds) {
+			String lemma = words[0];
+			int[] strips = new int[words.length];
+			String[] sfx = new String[words.length];
+			sfx[0] = "";
+
+			for(int s = 1; s < words.length; s++) {
+				String w = words[s];
+				int n = Math.min(lemma.length(), w.length());
+				int p = 0;
+				while(p < n && lemma.charAt(p) == w.charAt(p)) p++;
+
+				strips[s] = lemma.length() - p;
+				sfx[s] = suffixes.computeIfAbsent(w.substring(p), k -> k);
+			}
+
+			Paradigm para = new Paradigm(gluids, strips, sfx);
+			int[] use = uses.get(para);
+
+			if(use == null) {
+				uses.put(para, new int[] { 1, lexemes.size() });
+			} else {
+				use[0]++;
+				// share the arrays of the equal paradigms
+				para = lexemes.get(use[1]).paradigm;
+			}
+
+			lexemes.add(new Entry(words, lemmaId, formIds, para));
+		}
+
+		/**
+		 * Returns the paradigm for the specified lexeme, which is either
+		 * the paradigm of the lexeme or a frequent paradigm with the same
+		 * labels, which generates at least half of the word forms.
+		 */
+		Paradigm choose(Entry e) {
+			if(uses.get(e.paradigm)[0] >= MIN_PARADIGM_USES) return e.paradigm;
+
+			if(frequent == null) {
+				frequent = new HashMap<>();
+				for(Map.Entry<Paradigm, int[]> u : uses.entrySet()) {
+					if(u.getValue()[0] < MIN_PARADIGM_USES) continue;
+
+					Labels l = new Labels(u.getKey().gluids);
+					frequent.computeIfAbsent(l, k -> new ArrayList<>()).add(u.getKey());
+				}
+			}
+
+			ArrayList<Paradigm> candidates = frequent.get(new Labels(e.paradigm.gluids));
+			if(candidates == null) return e.paradigm;
+
+			Paradigm best = e.paradigm;
+			int bestDiff = (e.words.length - 1) / 2 + 1;
+
+			for(Paradigm p : candidates) {
+				int d = p.diff(e.paradigm);
+				if(d < bestDiff) {
+					best = p;
+					bestDiff = d;
+				}
+			}
+
+			return best;
+		}
+	}
+
+	/** The grammatical label UIDs of the slots of a paradigm. */
+	private static final class Labels {
+		final int[] gluids;
+
+		Labels(int[] gluids) { this.gluids = gluids; }
+
+		@Override
+		public int hashCode() { return Arrays.hashCode(gluids); }
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Labels && Arrays.equals(gluids, ((Labels)obj).gluids);
+		}
+	}
+
+	private static I18n i18n() { return I18n.getInstance(); }
+}
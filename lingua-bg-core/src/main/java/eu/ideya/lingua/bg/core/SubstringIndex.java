@@ -0,0 +1,196 @@
+/*
+ *   Copyright (C) 2026 Grigor Iliev <grigor@grigoriliev.com>
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package eu.ideya.lingua.bg.core;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A trigram index over a set of words. Each trigram has a sorted
+ * posting list with the indexes of the words containing it.
+ * The candidates for a substring query are found by intersecting the
+ * posting lists of the trigrams of the query and are then verified,
+ * because the trigrams of a word are not necessarily adjacent.
+ * Strings shorter than a trigram are found by scanning all words.
+ *
+ * <p>The posting lists are kept in an open-addressing hash table
+ * keyed by the three characters of the trigram packed in a
+ * <code>long</code>, so the keys are not boxed. The table is
+ * only changed by the constructor.
+ */
+final class SubstringIndex {
+	private final String[] words;
+
+	/** The trigrams in the hash table. Valid only if the slot is used. */
+	private long[] keys = new long[1024];
+
+	/** The posting lists in the hash table. <code>null</code> marks a free slot. */
+	private int[][] postings = new int[1024][];
+
+	private int trigramCount = 0;
+
+	SubstringIndex(Collection<String> words) {
+		this.words = words.toArray(new String[0]);
+
+		// the number of words in each posting list while it is built
+		int[] sizes = new int[keys.length];
+
+		for(int w = 0; w < this.words.length; w++) {
+			String s = this.words[w];
+
+			for(int i = 0; i + 3 <= s.length(); i++) {
+				if((trigramCount + 1) * 2 > keys.length) sizes = rehash(sizes);
+
+				long key = trigram(s, i);
+				int slot = findSlot(key);
+				int[] p = postings[slot];
+
+				if(p == null) {
+					keys[slot] = key;
+					postings[slot] = p = new int[4];
+					trigramCount++;
+				}
+
+				// the words are added in ascending order
+				int n = sizes[slot];
+				if(n > 0 && p[n - 1] == w) continue;
+				if(n == p.length) postings[slot] = p = Arrays.copyOf(p, n * 2);
+				p[n] = w;
+				sizes[slot] = n + 1;
+			}
+		}
+
+		for(int i = 0; i < postings.length; i++) {
+			if(postings[i] != null) postings[i] = Arrays.copyOf(postings[i], sizes[i]);
+		}
+	}
+
+	/**
+	 * Returns the slot of the specified trigram,
+	 * or the free slot where it is to be added.
+	 */
+	private int findSlot(long key) {
+		int mask = keys.length - 1;
+		int i = hash(key) & mask;
+		while(postings[i] != null && keys[i] != key) i = (i + 1) & mask;
+		return i;
+	}
+
+	/**
+	 * Doubles the hash table and returns the sizes
+	 * of the posting lists in the new slots.
+	 */
+	private int[] rehash(int[] sizes) {
+		long[] oldKeys = keys;
+		int[][] oldPostings = postings;
+
+		keys = new long[oldKeys.length * 2];
+		postings = new int[oldKeys.length * 2][];
+		int[] res = new int[keys.length];
+
+		for(int i = 0; i < oldKeys.length; i++) {
+			if(oldPostings[i] == null) continue;
+
+			int slot = findSlot(oldKeys[i]);
+			keys[slot] = oldKeys[i];
+			postings[slot] = oldPostings[i];
+			res[slot] = sizes[i];
+		}
+
+		return res;
+	}
+
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int)(h ^ (h >>> 32));
+	}
+
+	/** Returns the word with the specified index. */
+	String getWord(int i) { return words[i]; }
+
+	/**
+	 * Returns the indexes of all words containing the specified string
+	 * in ascending order. Strings shorter than three characters have
+	 * no trigrams, so all words are scanned.
+	 */
+	int[] find(String s) {
+		if(s.length() < 3) return scan(s);
+
+		int n = s.length() - 2;
+		int[][] lists = new int[n][];
+
+		for(int i = 0; i < n; i++) {
+			lists[i] = postings[findSlot(trigram(s, i))];
+			if(lists[i] == null) return new int[0];
+		}
+
+		// start with the shortest posting list
+		Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+
+		int[] res = lists[0].clone();
+		int count = res.length;
+
+		for(int i = 1; i < n && count > 0; i++) {
+			count = intersect(res, count, lists[i]);
+		}
+
+		int k = 0;
+		int[] found = new int[count];
+		for(int i = 0; i < count; i++) {
+			if(words[res[i]].contains(s)) found[k++] = res[i];
+		}
+
+		return Arrays.copyOf(found, k);
+	}
+
+	private int[] scan(String s) {
+		int[] found = new int[16];
+		int k = 0;
+
+		for(int w = 0; w < words.length; w++) {
+			if(!words[w].contains(s)) continue;
+			if(k == found.length) found = Arrays.copyOf(found, k * 2);
+			found[k++] = w;
+		}
+
+		return Arrays.copyOf(found, k);
+	}
+
+	/**
+	 * Intersects the first <code>count</code> elements of <code>a</code>
+	 * with <code>b</code>. The result is stored in <code>a</code>.
+	 * @return The size of the intersection.
+	 */
+	private int intersect(int[] a, int count, int[] b) {
+		int i = 0, j = 0, k = 0;
+
+		while(i < count && j < b.length) {
+			if(a[i] < b[j]) i++;
+			else if(a[i] > b[j]) j++;
+			else {
+				a[k++] = a[i++];
+				j++;
+			}
+		}
+
+		return k;
+	}
+
+	private static long trigram(String s, int i) {
+		return ((long)s.charAt(i) << 32) | ((long)s.charAt(i + 1) << 16) | s.charAt(i + 2);
+	}
+}
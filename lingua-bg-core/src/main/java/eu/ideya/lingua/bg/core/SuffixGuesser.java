@@ -0,0 +1,387 @@
+/*
+ *   Copyright (C) 2026 Grigor Iliev <grigor@grigoriliev.com>
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package eu.ideya.lingua.bg.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Guesses the analyses of words, which are not in the dictionary, from
+ * the endings of the known words. An analysis is the grammatical label
+ * UID of the word, the grammatical label UID of its lemma and a rule,
+ * which makes the lemma by replacing the end of the word.
+ *
+ * <p>The guesser is a trie over the reversed endings of the word forms
+ * of the open lexical classes (nouns, adjectives, verbs and adverbs) of
+ * up to {@link #MAX_SUFFIX} characters. Each node keeps the most frequent
+ * analyses of the words with its ending, which change only the ending.
+ * A word is analysed by the deepest node matching its end, so the time
+ * needed doesn't depend on the size of the dictionary. The trie is built
+ * in one pass over the lexemes and stored in flat arrays.
+ * @see BgDictionary#getSuffixGuesser()
+ */
+public final class SuffixGuesser {
+	/** The maximum length of the endings in the trie. */
+	public static final int MAX_SUFFIX = 8;
+
+	/** The maximum number of analyses kept for each ending. */
+	public static final int MAX_ANALYSES = 8;
+
+	/** The endings of fewer words are not kept. */
+	private static final int MIN_WORDS = 2;
+
+	private static final Guess[] EMPTY = new Guess[0];
+
+	/**
+	 * A guessed analysis of a word.
+	 */
+	public static final class Guess {
+		/** The guessed lemma. */
+		public final String lemma;
+
+		/** The grammatical label UID of the word. */
+		public final int grammLabelUid;
+
+		/** The grammatical label UID of the lemma. */
+		public final int lemmaGrammLabelUid;
+
+		/**
+		 * The share of the known words with the same ending,
+		 * which have this analysis.
+		 */
+		public final double probability;
+
+		Guess(String lemma, int grammLabelUid, int lemmaGrammLabelUid, double probability) {
+			this.lemma = lemma;
+			this.grammLabelUid = grammLabelUid;
+			this.lemmaGrammLabelUid = lemmaGrammLabelUid;
+			this.probability = probability;
+		}
+
+		@Override
+		public String toString() {
+			return lemma + " " + BTBUtils.getTag(grammLabelUid) + " " + probability;
+		}
+	}
+
+	/*
+	 * The analyses. The rule removes strips[a] characters from
+	 * the end of the word and appends suffixes[a].
+	 */
+
+	private final int[] formGluids;
+	private final int[] lemmaGluids;
+	private final int[] strips;
+	private final String[] suffixes;
+
+	/*
+	 * The trie. The children of node n are at [childStart[n], childStart[n + 1])
+	 * sorted by character and the analyses of node n are at
+	 * [analysisStart[n], analysisStart[n + 1]) sorted by frequency.
+	 * The root is node zero.
+	 */
+
+	private final int[] childStart;
+	private final char[] childChars;
+	private final int[] childNodes;
+
+	private final int[] analysisStart;
+	private final int[] analyses;
+	private final int[] counts;
+
+	/** The number of the words with the ending of each node. */
+	private final int[] totals;
+
+	/**
+	 * Creates a guesser trained on the specified lexemes.
+	 */
+	SuffixGuesser(Iterable<Lexeme> lexemes) {
+		Builder b = new Builder();
+
+		for(Lexeme l : lexemes) {
+			GrammaticalLabel.LexicalClass c;
+			try { c = GrammaticalLabel.getLexicalClass(l.lemma.grammLabelUid); }
+			catch(IllegalArgumentException e) { continue; }
+
+			switch(c) {
+				case NOUN: case ADJECTIVE: case VERB: case ADVERB: break;
+				default: continue;
+			}
+
+			b.add(l.lemma, l.lemma);
+			for(WordEntry we : l.forms) b.add(we, l.lemma);
+		}
+
+		int n = b.analyses.size();
+		formGluids = new int[n];
+		lemmaGluids = new int[n];
+		strips = new int[n];
+		suffixes = new String[n];
+
+		for(int a = 0; a < n; a++) {
+			Analysis an = b.analyses.get(a);
+			formGluids[a] = an.formGluid;
+			lemmaGluids[a] = an.lemmaGluid;
+			strips[a] = an.strip;
+			suffixes[a] = an.suffix;
+		}
+
+		// number the kept nodes breadth first
+		ArrayList<Node> nodes = new ArrayList<>();
+		nodes.add(b.root);
+		for(int i = 0; i < nodes.size(); i++) {
+			Node nd = nodes.get(i);
+			nd.sortChildren();
+			for(int k = 0; k < nd.childCount; k++) {
+				if(nd.children[k].words >= MIN_WORDS) nodes.add(nd.children[k]);
+			}
+		}
+
+		int nodeCount = nodes.size();
+		childStart = new int[nodeCount + 1];
+		analysisStart = new int[nodeCount + 1];
+		totals = new int[nodeCount];
+
+		int edges = 0, kept = 0;
+		for(Node nd : nodes) {
+			for(int k = 0; k < nd.childCount; k++) {
+				if(nd.children[k].words >= MIN_WORDS) edges++;
+			}
+			kept += Math.min(nd.analysisCount, MAX_ANALYSES);
+		}
+
+		childChars = new char[edges];
+		childNodes = new int[edges];
+		analyses = new int[kept];
+		counts = new int[kept];
+
+		int e = 0, a = 0, next = 1;
+		for(int i = 0; i < nodeCount; i++) {
+			Node nd = nodes.get(i);
+			childStart[i] = e;
+			analysisStart[i] = a;
+			totals[i] = nd.words;
+
+			for(int k = 0; k < nd.childCount; k++) {
+				if(nd.children[k].words < MIN_WORDS) continue;
+				childChars[e] = nd.chars[k];
+				childNodes[e++] = next++; // same order as above
+			}
+
+			Integer[] order = new Integer[nd.analysisCount];
+			for(int k = 0; k < order.length; k++) order[k] = k;
+			Arrays.sort(order, (x, y) -> nd.counts[y] != nd.counts[x] ?
+				Integer.compare(nd.counts[y], nd.counts[x]) : Integer.compare(nd.ids[x], nd.ids[y]));
+
+			for(int k = 0; k < Math.min(order.length, MAX_ANALYSES); k++) {
+				analyses[a] = nd.ids[order[k]];
+				counts[a++] = nd.counts[order[k]];
+			}
+		}
+
+		childStart[nodeCount] = e;
+		analysisStart[nodeCount] = a;
+	}
+
+	/** Returns the number of the endings in this guesser. */
+	public int getNodeCount() { return totals.length; }
+
+	/** Returns the number of the distinct analyses. */
+	public int getAnalysisCount() { return formGluids.length; }
+
+	/**
+	 * Returns the guessed analyses of the specified word, the most
+	 * probable first, or an empty array if the ending is not known.
+	 */
+	public Guess[] guess(CharSequence word) {
+		return guess(word, null);
+	}
+
+	/**
+	 * Returns the guessed analyses of the specified word, the most
+	 * probable first, or an empty array if the ending is not known.
+	 * @param p If not <code>null</code>, only analyses whose
+	 * grammatical labels match this pattern are included.
+	 */
+	public Guess[] guess(CharSequence word, TagPattern p) {
+		int len = word.length();
+
+		// the deepest node, which leaves at least one character of the word
+		int node = 0;
+		for(int depth = 1; depth < len && depth <= MAX_SUFFIX; depth++) {
+			int child = findChild(node, word.charAt(len - depth));
+			if(child == -1) break;
+			node = child;
+		}
+
+		if(node == 0) return EMPTY;
+
+		int start = analysisStart[node], end = analysisStart[node + 1];
+		Guess[] res = new Guess[end - start];
+		int n = 0;
+
+		for(int k = start; k < end; k++) {
+			int a = analyses[k];
+			if(p != null && !p.matches(formGluids[a])) continue;
+
+			String lemma = word.subSequence(0, len - strips[a]) + suffixes[a];
+			double prob = (double)counts[k] / totals[node];
+			res[n++] = new Guess(lemma, formGluids[a], lemmaGluids[a], prob);
+		}
+
+		return n == res.length ? res : Arrays.copyOf(res, n);
+	}
+
+	private int findChild(int node, char c) {
+		int lo = childStart[node], hi = childStart[node + 1] - 1;
+
+		while(lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			char m = childChars[mid];
+
+			if(m < c) lo = mid + 1;
+			else if(m > c) hi = mid - 1;
+			else return childNodes[mid];
+		}
+
+		return -1;
+	}
+
+	/** An analysis while the guesser is built. */
+	private static final class Analysis {
+		final int formGluid;
+		final int lemmaGluid;
+		final int strip;
+		final String suffix;
+
+		Analysis(int formGluid, int lemmaGluid, int strip, String suffix) {
+			this.formGluid = formGluid;
+			this.lemmaGluid = lemmaGluid;
+			this.strip = strip;
+			this.suffix = suffix;
+		}
+
+		@Override
+		public int hashCode() {
+			return ((formGluid * 31 + lemmaGluid) * 31 + strip) * 31 + suffix.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof Analysis)) return false;
+
+			Analysis a = (Analysis)obj;
+			return formGluid == a.formGluid && lemmaGluid == a.lemmaGluid &&
+				strip == a.strip && suffix.equals(a.suffix);
+		}
+	}
+
+	/** A trie node while the guesser is built. */
+	private static final class Node {
+		char[] chars = new char[2];
+		Node[] children = new Node[2];
+		int childCount = 0;
+
+		int[] ids = new int[2];
+		int[] counts = new int[2];
+		int analysisCount = 0;
+
+		/** The number of words with this ending. */
+		int words = 0;
+
+		Node child(char c) {
+			for(int k = 0; k < childCount; k++) {
+				if(chars[k] == c) return children[k];
+			}
+
+			if(childCount == chars.length) {
+				chars = Arrays.copyOf(chars, childCount * 2);
+				children = Arrays.copyOf(children, childCount * 2);
+			}
+
+			chars[childCount] = c;
+			return children[childCount++] = new Node();
+		}
+
+		void count(int analysis) {
+			for(int k = 0; k < analysisCount; k++) {
+				if(ids[k] == analysis) {
+					counts[k]++;
+					return;
+				}
+			}
+
+			if(analysisCount == ids.length) {
+				ids = Arrays.copyOf(ids, analysisCount * 2);
+				counts = Arrays.copyOf(counts, analysisCount * 2);
+			}
+
+			ids[analysisCount] = analysis;
+			counts[analysisCount++] = 1;
+		}
+
+		void sortChildren() {
+			Integer[] order = new Integer[childCount];
+			for(int k = 0; k < childCount; k++) order[k] = k;
+			Arrays.sort(order, (x, y) -> Character.compare(chars[x], chars[y]));
+
+			char[] c = new char[childCount];
+			Node[] n = new Node[childCount];
+			for(int k = 0; k < childCount; k++) {
+				c[k] = chars[order[k]];
+				n[k] = children[order[k]];
+			}
+
+			chars = c;
+			children = n;
+		}
+	}
+
+	private static final class Builder {
+		final Node root = new Node();
+		final ArrayList<Analysis> analyses = new ArrayList<>();
+		final HashMap<Analysis, Integer> ids = new HashMap<>();
+
+		void add(WordEntry we, WordEntry lemma) {
+			String w = we.word, l = lemma.word;
+
+			int n = Math.min(w.length(), l.length());
+			int p = 0;
+			while(p < n && w.charAt(p) == l.charAt(p)) p++;
+
+			int strip = w.length() - p;
+			Analysis an = new Analysis(we.grammLabelUid, lemma.grammLabelUid, strip, l.substring(p));
+			Integer id = ids.get(an);
+			if(id == null) {
+				id = analyses.size();
+				ids.put(an, id);
+				analyses.add(an);
+			}
+
+			Node node = root;
+			root.words++;
+
+			// the analysis is counted by the endings, which contain the changed part
+			for(int depth = 1; depth < w.length() && depth <= MAX_SUFFIX; depth++) {
+				node = node.child(w.charAt(w.length() - depth));
+				node.words++;
+				if(strip <= depth) node.count(id);
+			}
+		}
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ *   Copyright (C) 2026 Grigor Iliev <grigor@grigoriliev.com>
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package eu.ideya.lingua.bg.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * An index of word entries sorted by their reversed words, so all
+ * words ending with a given suffix form a contiguous range, which is
+ * found with two binary searches.
+ */
+final class SuffixIndex {
+	/** Orders the entries by reversed word and then by ID. */
+	private static final Comparator<WordEntry> REVERSED_ORDER = (e1, e2) -> {
+		int c = compareReversed(e1.word, e2.word);
+		return c != 0 ? c : Integer.compare(e1.id, e2.id);
+	};
+
+	private final WordEntry[] entries;
+
+	SuffixIndex(Collection<WordEntry> words) {
+		entries = words.toArray(new WordEntry[0]);
+		Arrays.sort(entries, REVERSED_ORDER);
+	}
+
+	/**
+	 * Returns all word entries ending with the specified suffix,
+	 * which match the specified lexical class and search query.
+	 * The entries are ordered by ID.
+	 * @param c If not <code>null</code>, only words from this lexical
+	 * class are included.
+	 * @param q If not <code>null</code>, only words matching the
+	 * compiled grammatical label mask are included.
+	 */
+	ArrayList<WordEntry> find (
+		String suffix, GrammaticalLabel.LexicalClass c, BgDictionary.SearchQuery q
+	) {
+		int start = lowerBound(suffix);
+		ArrayList<WordEntry> res = new ArrayList<>();
+
+		for(int i = start; i < entries.length && entries[i].word.endsWith(suffix); i++) {
+			WordEntry we = entries[i];
+			int g = we.grammLabelUid;
+
+			if(c != null && GrammaticalLabel.getLexicalClass(g) != c) continue;
+			if(q != null && (g & q.glMask) != q.glId) continue;
+
+			res.add(we);
+		}
+
+		res.sort(null);
+
+		return res;
+	}
+
+	/**
+	 * Returns the index of the first entry whose reversed word is not
+	 * less than the reversed suffix.
+	 */
+	private int lowerBound(String suffix) {
+		int lo = 0, hi = entries.length;
+
+		while(lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if(compareReversed(entries[mid].word, suffix) < 0) lo = mid + 1;
+			else hi = mid;
+		}
+
+		return lo;
+	}
+
+	/**
+	 * Compares the specified strings as if they were reversed.
+	 */
+	private static int compareReversed(String s1, String s2) {
+		int l1 = s1.length(), l2 = s2.length();
+		int n = Math.min(l1, l2);
+
+		for(int i = 1; i <= n; i++) {
+			char c1 = s1.charAt(l1 - i);
+			char c2 = s2.charAt(l2 - i);
+			if(c1 != c2) return c1 - c2;
+		}
+
+		return l1 - l2;
+	}
+}
@@ -0,0 +1,305 @@
+/*
+ *   Copyright (C) 2026 Grigor Iliev <grigor@grigoriliev.com>
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package eu.ideya.lingua.bg.core;
+
+import eu.ideya.lingua.bg.core.GrammaticalLabel.LexicalClass;
+
+import java.util.Arrays;
+
+/**
+ * A partially specified BTB-TS tag compiled into checks over the bits
+ * of the grammatical label UIDs, so labels can be tested against the
+ * tag without building their tags.
+ *
+ * <p>Each specified position of the tag is mapped to the grammatical
+ * feature stored at that position for the lexical class of the tag.
+ * A label is accepted at once when <code>(uid &amp; mask) == value</code>,
+ * where <code>mask</code> and <code>value</code> cover all specified
+ * features. Otherwise the features are checked one by one, because
+ * a feature which is not set in the label ('-') matches any value.
+ * The characters of the feature values are looked up in tables built
+ * from {@link BTBUtils#getTag}, so the results are the same as
+ * comparing the tags as strings.
+ */
+public final class TagPattern {
+	/** The positions of the grammatical features in the tags by lexical class. */
+	private static final int[][] FIELDS = new int[LexicalClass.values().length][];
+
+	/**
+	 * The tag characters by lexical class, tag position and feature
+	 * value, or {@link #DEPENDENT} if the character depends on other
+	 * bits of the label as well.
+	 */
+	private static final char[][][] CHARS = new char[LexicalClass.values().length][][];
+
+	private static final char DEPENDENT = '\uffff';
+
+	static {
+		int[] none = new int[0];
+		for(LexicalClass c : LexicalClass.values()) FIELDS[c.ordinal()] = none;
+
+		FIELDS[LexicalClass.NOUN.ordinal()] = new int[] {
+			0,
+			GrammaticalLabel.nounTypeMask,
+			GrammaticalLabel.genderMask,
+			GrammaticalLabel.numberMask,
+			GrammaticalLabel.articleMask,
+			GrammaticalLabel.caseMask
+		};
+
+		FIELDS[LexicalClass.ADJECTIVE.ordinal()] = new int[] {
+			0,
+			GrammaticalLabel.genderMask,
+			GrammaticalLabel.numberMask,
+			GrammaticalLabel.articleMask
+		};
+
+		FIELDS[LexicalClass.PRONOUN.ordinal()] = new int[] {
+			0,
+			GrammaticalLabel.pronounTypeMask,
+			0,
+			GrammaticalLabel.pronounFormMask,
+			GrammaticalLabel.caseMask,
+			GrammaticalLabel.numberMask,
+			GrammaticalLabel.personMask,
+			GrammaticalLabel.genderMask,
+			GrammaticalLabel.articleMask
+		};
+
+		FIELDS[LexicalClass.NUMERAL.ordinal()] = new int[] {
+			0,
+			GrammaticalLabel.numeralTypeMask,
+			GrammaticalLabel.genderMask,
+			GrammaticalLabel.numberMask,
+			GrammaticalLabel.articleMask
+		};
+
+		FIELDS[LexicalClass.VERB.ordinal()] = new int[] {
+			0,
+			GrammaticalLabel.verbTypeMask,
+			GrammaticalLabel.aspectMask,
+			GrammaticalLabel.transitivityMask,
+			GrammaticalLabel.verbFormMask,
+			GrammaticalLabel.voiceMask,
+			GrammaticalLabel.tenseMask,
+			GrammaticalLabel.personMask,
+			GrammaticalLabel.numberMask,
+			GrammaticalLabel.genderMask,
+			GrammaticalLabel.articleMask
+		};
+
+		int noun = BgGrammarType.getTypeId("75c");
+		int masculine = GrammaticalLabel.encodeGender(0, GrammaticalLabel.Gender.MASCULINE);
+
+		// the definite article of the masculine nouns has its own
+		// character and the auxiliary verbs are told apart by type
+		initChars(LexicalClass.NOUN, noun, noun | masculine);
+		initChars(LexicalClass.ADJECTIVE, BgGrammarType.getTypeId("89c"));
+		initChars(LexicalClass.PRONOUN, BgGrammarType.getTypeId("130c"));
+		initChars(LexicalClass.NUMERAL, BgGrammarType.getTypeId("141c"));
+		initChars(
+			LexicalClass.VERB,
+			BgGrammarType.getTypeId("187c"), BgGrammarType.getTypeId("142"),
+			BgGrammarType.getTypeId("143"), BgGrammarType.getTypeId("186")
+		);
+	}
+
+	/**
+	 * Builds the character tables of the specified lexical class from
+	 * the tags of the specified labels with each feature value.
+	 */
+	private static void initChars(LexicalClass c, int... labels) {
+		int[] fields = FIELDS[c.ordinal()];
+		char[][] chars = new char[fields.length][];
+
+		for(int pos = 1; pos < fields.length; pos++) {
+			int mask = fields[pos];
+			if(mask == 0) continue;
+
+			int shift = Integer.numberOfTrailingZeros(mask);
+			chars[pos] = new char[(mask >>> shift) + 1];
+
+			for(int v = 0; v < chars[pos].length; v++) {
+				for(int l = 0; l < labels.length; l++) {
+					char ch = getChar((labels[l] & ~mask) | (v << shift), pos);
+					if(l == 0) chars[pos][v] = ch;
+					else if(chars[pos][v] != ch) chars[pos][v] = DEPENDENT;
+				}
+			}
+		}
+
+		CHARS[c.ordinal()] = chars;
+	}
+
+	/**
+	 * Returns the character at the specified position of the tag of the
+	 * specified label, or zero if the label is not valid.
+	 */
+	private static char getChar(int grammLabelUid, int pos) {
+		String tag;
+		try { tag = BTBUtils.computeTag(grammLabelUid); }
+		catch(RuntimeException e) { return 0; }
+
+		return pos < tag.length() ? tag.charAt(pos) : '-';
+	}
+
+	private final String tag;
+
+	/**
+	 * <code>null</code> if the first character of the tag is not set,
+	 * in which case the tags are compared as strings.
+	 */
+	private final LexicalClass lexicalClass;
+
+	/** The lexical class character is not valid. */
+	private final boolean matchesNothing;
+
+	/** The specified positions, which are feature positions. */
+	private final int[] positions;
+
+	/** Some specified positions are not feature positions. */
+	private final boolean extraPositions;
+
+	private final int mask;
+	private final int value;
+
+	/** Whether a label with <code>(uid &amp; mask) == value</code> matches. */
+	private final boolean fast;
+
+	private TagPattern(String tag) {
+		this.tag = tag;
+
+		char c0 = tag.isEmpty() ? '-' : tag.charAt(0);
+		lexicalClass = c0 == '-' ? null : BTBUtils.getLexicalClass(c0);
+		matchesNothing = c0 != '-' && lexicalClass == null;
+
+		int[] fields = lexicalClass == null ? new int[0] : FIELDS[lexicalClass.ordinal()];
+		char[][] chars = lexicalClass == null ? null : CHARS[lexicalClass.ordinal()];
+
+		int[] pos = new int[tag.length()];
+		int n = 0, m = 0, v = 0;
+		boolean f = true, extra = false;
+
+		for(int i = 1; i < tag.length(); i++) {
+			char ch = tag.charAt(i);
+			if(ch == '-') continue;
+
+			if(i >= fields.length || fields[i] == 0) {
+				extra = true;
+				continue;
+			}
+
+			pos[n++] = i;
+
+			int k = indexOf(chars[i], ch);
+			if(k == -1) {
+				f = false;
+			} else {
+				m |= fields[i];
+				v |= k << Integer.numberOfTrailingZeros(fields[i]);
+			}
+		}
+
+		positions = Arrays.copyOf(pos, n);
+		extraPositions = extra;
+		mask = m;
+		value = v;
+		fast = f;
+	}
+
+	private static int indexOf(char[] chars, char ch) {
+		for(int i = 0; i < chars.length; i++) {
+			if(chars[i] == ch) return i;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Compiles the specified partially specified BTB-TS tag,
+	 * in which the features that are not set are marked with '-'.
+	 */
+	public static TagPattern compile(String tag) {
+		if(tag == null) throw new NullPointerException("tag");
+		return new TagPattern(tag);
+	}
+
+	/** Returns the tag of this pattern. */
+	public String getTag() { return tag; }
+
+	/**
+	 * Determines whether the label with the specified UID is compatible
+	 * with this pattern, which is the same as
+	 * <code>!BTBUtils.differentTags(getTag(), BTBUtils.getTag(uid))</code>.
+	 */
+	public boolean matches(int grammLabelUid) {
+		if(lexicalClass == null) {
+			if(matchesNothing) return false;
+			return !BTBUtils.differentTags(tag, BTBUtils.getTag(grammLabelUid));
+		}
+
+		if(GrammaticalLabel.getLexicalClass(grammLabelUid) != lexicalClass) return false;
+		if(fast && (grammLabelUid & mask) == value) return true;
+
+		char[][] chars = CHARS[lexicalClass.ordinal()];
+		int[] fields = FIELDS[lexicalClass.ordinal()];
+
+		for(int i : positions) {
+			char ch = getChar(chars, fields, grammLabelUid, i);
+			if(ch != '-' && ch != tag.charAt(i)) return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Determines whether the label with the specified UID has all the
+	 * features specified in this pattern, which is the same as
+	 * <code>BTBUtils.hasFeatures(BTBUtils.getTag(uid), getTag())</code>.
+	 */
+	public boolean isMatchedBy(int grammLabelUid) {
+		if(lexicalClass == null) {
+			if(matchesNothing) return false;
+			return BTBUtils.hasFeatures(BTBUtils.getTag(grammLabelUid), tag);
+		}
+
+		if(extraPositions) return false;
+		if(GrammaticalLabel.getLexicalClass(grammLabelUid) != lexicalClass) return false;
+		if(fast && (grammLabelUid & mask) == value) return true;
+
+		char[][] chars = CHARS[lexicalClass.ordinal()];
+		int[] fields = FIELDS[lexicalClass.ordinal()];
+
+		for(int i : positions) {
+			if(getChar(chars, fields, grammLabelUid, i) != tag.charAt(i)) return false;
+		}
+
+		return true;
+	}
+
+	private static char getChar(char[][] chars, int[] fields, int grammLabelUid, int pos) {
+		int mask = fields[pos];
+		char ch = chars[pos][(grammLabelUid & mask) >>> Integer.numberOfTrailingZeros(mask)];
+		if(ch != DEPENDENT) return ch;
+
+		String tag2 = BTBUtils.getTag(grammLabelUid);
+		return pos < tag2.length() ? tag2.charAt(pos) : '-';
+	}
+
+	@Override
+	public String toString() { return tag; }
+}
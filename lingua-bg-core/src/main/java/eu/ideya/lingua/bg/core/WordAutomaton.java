@@ -0,0 +1,275 @@
+/*
+ *   Copyright (C) 2026 Grigor Iliev <grigor@grigoriliev.com>
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package eu.ideya.lingua.bg.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * A minimal acyclic finite-state automaton over a sorted set of words,
+ * which maps each word to its index in the set (minimal perfect hashing).
+ * The index is used as an output, which refers to the data associated
+ * with the word, so the common prefixes and suffixes of the word forms
+ * are shared by all words.
+ *
+ * <p>The automaton is stored in flat arrays. Each arc has a label,
+ * a target state and the number of words, which precede the words
+ * reachable through the arc.
+ */
+final class WordAutomaton {
+	/** The index of the first arc of each state, followed by the arc count. */
+	private final int[] firstArc;
+
+	/** Determines whether the state at the same index is final. */
+	private final boolean[] finalState;
+
+	private final char[] arcLabels;
+	private final int[] arcTargets;
+
+	/** The number of words skipped when following the arc. */
+	private final int[] arcSkips;
+
+	private final int wordCount;
+
+	private WordAutomaton (
+		int[] firstArc, boolean[] finalState,
+		char[] arcLabels, int[] arcTargets, int[] arcSkips, int wordCount
+	) {
+		this.firstArc = firstArc;
+		this.finalState = finalState;
+		this.arcLabels = arcLabels;
+		this.arcTargets = arcTargets;
+		this.arcSkips = arcSkips;
+		this.wordCount = wordCount;
+	}
+
+	/** Returns the number of words in this automaton. */
+	int size() { return wordCount; }
+
+	/**
+	 * Returns the index of the specified word in the sorted word set,
+	 * or <code>-1</code> if the word is not accepted by this automaton.
+	 */
+	int indexOf(CharSequence s) {
+		return indexOf(s, 0, s.length());
+	}
+
+	/**
+	 * Returns the index of the word <code>s[start, end)</code> in the
+	 * sorted word set, or <code>-1</code> if the word is not accepted
+	 * by this automaton.
+	 */
+	int indexOf(CharSequence s, int start, int end) {
+		if(wordCount == 0) return -1;
+
+		int state = 0, idx = 0;
+
+		for(int i = start; i < end; i++) {
+			int arc = findArc(state, s.charAt(i));
+			if(arc < 0) return -1;
+
+			idx += arcSkips[arc];
+			state = arcTargets[arc];
+		}
+
+		return finalState[state] ? idx : -1;
+	}
+
+	private int findArc(int state, char c) {
+		int lo = firstArc[state], hi = firstArc[state + 1] - 1;
+
+		while(lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			char l = arcLabels[mid];
+
+			if(l < c) lo = mid + 1;
+			else if(l > c) hi = mid - 1;
+			else return mid;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Builds a minimal automaton from the specified words.
+	 * @param words Distinct words sorted in natural order.
+	 */
+	static WordAutomaton build(String[] words) {
+		Builder b = new Builder();
+		for(String w : words) b.add(w);
+		return b.finish();
+	}
+
+	private static final class State {
+		boolean fin = false;
+		char[] labels = new char[2];
+		State[] targets = new State[2];
+		int arcCount = 0;
+
+		/** The ID of the state, or <code>-1</code> if not registered. */
+		int id = -1;
+		int hash;
+
+		State lastChild() { return arcCount == 0 ? null : targets[arcCount - 1]; }
+
+		void addArc(char c, State s) {
+			if(arcCount == labels.length) {
+				labels = Arrays.copyOf(labels, arcCount * 2);
+				targets = Arrays.copyOf(targets, arcCount * 2);
+			}
+
+			labels[arcCount] = c;
+			targets[arcCount++] = s;
+		}
+
+		void computeHash() {
+			int h = fin ? 1 : 0;
+			for(int i = 0; i < arcCount; i++) {
+				h = h * 31 + labels[i];
+				h = h * 31 + targets[i].id;
+			}
+
+			hash = h;
+		}
+
+		@Override
+		public int hashCode() { return hash; }
+
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof State)) return false;
+
+			State s = (State)obj;
+			if(fin != s.fin || arcCount != s.arcCount) return false;
+
+			for(int i = 0; i < arcCount; i++) {
+				if(labels[i] != s.labels[i] || targets[i] != s.targets[i]) return false;
+			}
+
+			return true;
+		}
+	}
+
+	/**
+	 * Incrementally builds a minimal automaton from sorted words.
+	 */
+	private static final class Builder {
+		private final State root = new State();
+		private final HashMap<State, State> register = new HashMap<>();
+		private final ArrayList<State> states = new ArrayList<>();
+		private String previous = null;
+		private int wordCount = 0;
+
+		void add(String word) {
+			if(previous != null && previous.compareTo(word) >= 0) {
+				throw new IllegalArgumentException("Words not sorted: " + word);
+			}
+
+			// walk the common prefix
+			State s = root;
+			int i = 0;
+			while(i < word.length() && s.arcCount > 0 && s.labels[s.arcCount - 1] == word.charAt(i)) {
+				s = s.lastChild();
+				i++;
+			}
+
+			if(s.arcCount > 0) replaceOrRegister(s);
+
+			for(; i < word.length(); i++) {
+				State t = new State();
+				s.addArc(word.charAt(i), t);
+				s = t;
+			}
+
+			s.fin = true;
+			previous = word;
+			wordCount++;
+		}
+
+		private void replaceOrRegister(State s) {
+			State child = s.lastChild();
+			if(child.arcCount > 0) replaceOrRegister(child);
+
+			child.computeHash();
+			State q = register.get(child);
+
+			if(q != null) {
+				s.targets[s.arcCount - 1] = q;
+			} else {
+				child.id = states.size();
+				states.add(child);
+				register.put(child, child);
+			}
+		}
+
+		WordAutomaton finish() {
+			if(root.arcCount > 0) replaceOrRegister(root);
+			root.computeHash();
+
+			// the root is numbered first, the other states
+			// in reverse registration order
+			int n = states.size() + 1;
+			State[] order = new State[n];
+			order[0] = root;
+			for(int i = 0; i < states.size(); i++) order[n - 1 - i] = states.get(i);
+
+			for(int i = 1; i < n; i++) order[i].id = i;
+			root.id = 0;
+
+			// count the words reachable from each state;
+			// the children are registered before their parents
+			int[] counts = new int[n];
+			int arcCount = 0;
+
+			for(int i = n - 1; i >= 0; i--) {
+				State s = order[i];
+				int c = s.fin ? 1 : 0;
+				for(int k = 0; k < s.arcCount; k++) c += counts[s.targets[k].id];
+				counts[i] = c;
+				arcCount += s.arcCount;
+			}
+
+			int[] firstArc = new int[n + 1];
+			boolean[] finalState = new boolean[n];
+			char[] labels = new char[arcCount];
+			int[] targets = new int[arcCount];
+			int[] skips = new int[arcCount];
+
+			int a = 0;
+			for(int i = 0; i < n; i++) {
+				State s = order[i];
+				firstArc[i] = a;
+				finalState[i] = s.fin;
+
+				int skip = s.fin ? 1 : 0;
+				for(int k = 0; k < s.arcCount; k++) {
+					int t = s.targets[k].id;
+					labels[a] = s.labels[k];
+					targets[a] = t;
+					skips[a] = skip;
+					skip += counts[t];
+					a++;
+				}
+			}
+
+			firstArc[n] = a;
+
+			return new WordAutomaton(firstArc, finalState, labels, targets, skips, wordCount);
+		}
+	}
+}
@@ -0,0 +1,34 @@
+/*
+ *   Copyright (C) 2026 Grigor Iliev <grigor@grigoriliev.com>
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package eu.ideya.lingua.bg.core;
+
+import java.util.TreeSet;
+
+/**
+ * The word entries of a word, which keeps the number of their different
+ * lemmas and its position in a {@link BucketIndex}, so neither has to be
+ * recomputed when an entry is added or removed.
+ */
+final class WordBucket extends TreeSet<WordEntry> {
+	private static final long serialVersionUID = 1L;
+
+	/** The number of different lemmas of the entries. */
+	transient int lemmaCount = 0;
+
+	/** The position in the bucket index, or <code>-1</code>. */
+	transient int slot = -1;
+}
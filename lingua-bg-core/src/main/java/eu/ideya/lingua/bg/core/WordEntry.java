@@ -17,20 +17,35 @@
 package eu.ideya.lingua.bg.core;
 
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  *
  */
 public class WordEntry implements Comparable<WordEntry>, Serializable {
-	private static int counter = 0;
+	/** Keeps the dictionaries serialized by the previous versions readable. */
+	private static final long serialVersionUID = 6880211537997347475L;
+
+	/** The negative IDs of the entries not added to a dictionary yet. */
+	private static final AtomicInteger counter = new AtomicInteger(-1);
 
 	public final String word;
-	public final int    id;
+
+	/**
+	 * The word ID. An entry created by the public constructor has a
+	 * negative ID until it is added to a dictionary, which assigns
+	 * the next word ID of the dictionary to it.
+	 */
+	public int id;
+
 	public final int    lemmaId;
 	public final int    grammLabelUid;
 
 	/**
-	 *
+	 * Creates a word entry with a negative ID, which is unique in this
+	 * JVM. The entry gets its word ID when it is added to a dictionary,
+	 * see {@link BgDictionary#addWord(WordEntry)}, so the word forms of
+	 * a lemma need to be created after the lemma is added.
 	 * @param word
 	 * @param lemmaId The ID of the lemma, which represents this
 	 * word form. Set to <code>-1</code> if the current word is a lemma.
@@ -38,7 +53,18 @@ public class WordEntry implements Comparable<WordEntry>, Serializable {
 	 */
 	public WordEntry(String word, int lemmaId, int grammLabelUid) {
 		this.word = word;
-		this.id = ++counter;
+		this.id = counter.decrementAndGet();
+		this.lemmaId = lemmaId;
+		this.grammLabelUid = grammLabelUid;
+	}
+
+	/**
+	 * Creates a word entry with an already assigned ID. Used to
+	 * materialize entries from packed dictionary representations.
+	 */
+	WordEntry(String word, int id, int lemmaId, int grammLabelUid) {
+		this.word = word;
+		this.id = id;
 		this.lemmaId = lemmaId;
 		this.grammLabelUid = grammLabelUid;
 	}
@@ -65,178 +91,9 @@ public class WordEntry implements Comparable<WordEntry>, Serializable {
 		return id - e.id;
 	}
 
+	/**
+	 * @see WordEntryFormatter#format(WordEntry, Appendable)
+	 */
 	@Override
-	public String toString() {
-		StringBuffer sb = new StringBuffer();
-		sb.append(word);
-		addPadding(word, sb);
-		sb.append(' ');
-
-		if(isLemma()) {
-			sb.append("(").append(
-				I18n.getInstance().getLabel("WordEntry.lemma")
-			).append(")");
-		}
-
-		GrammaticalLabel.LexicalClass l = GrammaticalLabel.getLexicalClass(grammLabelUid);
-
-		sb.append(" ").append(l.toString());
-
-		GrammaticalLabel.Number  n = GrammaticalLabel.getNumber(grammLabelUid);
-		GrammaticalLabel.Gender  g = GrammaticalLabel.getGender(grammLabelUid);
-		GrammaticalLabel.Article a = GrammaticalLabel.getArticle(grammLabelUid);
-
-		switch(l) {
-			case NOUN:
-
-				GrammaticalLabel.NounCase nc =
-					GrammaticalLabel.getNounCase(grammLabelUid);
-
-				if(nc != GrammaticalLabel.NounCase.NONE) {
-					sb.append(" (").append(nc).append(")");
-				}
-				GrammaticalLabel.NounType nt =
-					GrammaticalLabel.getNounType(grammLabelUid);
-
-				sb.append(", ").append(nt);
-
-				sb.append(", ").append(g);
-
-				if(a != GrammaticalLabel.Article.NONE) {
-					sb.append(", ").append(a);
-				}
-
-				sb.append(", ").append(n);
-				break;
-			case ADJECTIVE:
-				GrammaticalLabel.AdjectiveCase ac =
-					GrammaticalLabel.getAdjectiveCase(grammLabelUid);
-				if(ac != GrammaticalLabel.AdjectiveCase.NONE) {
-					sb.append(" (").append(ac).append(")");
-				}
-
-				if(n == GrammaticalLabel.Number.SINGULAR) {
-					sb.append(", ").append(g);
-				}
-
-				sb.append(", ").append(n);
-				sb.append(", ").append(a);
-				break;
-			case PRONOUN:
-				sb.append(getPronounInfo());
-				break;
-			case VERB:
-				sb.append(getVerbInfo());
-				break;
-			case NUMERAL:
-				sb.append(getNumeralInfo());
-				break;
-		}
-
-
-		return sb.toString();
-	}
-
-	private String getPronounInfo() {
-		final StringBuilder sb = new StringBuilder();
-
-		GrammaticalLabel.PronounType pt = GrammaticalLabel.getPronounType(grammLabelUid);
-		sb.append(", ").append(pt);
-
-
-		GrammaticalLabel.PronounForm pf = GrammaticalLabel.getPronounForm(grammLabelUid);
-
-		if(pf != GrammaticalLabel.PronounForm.NONE) {
-			sb.append(", ").append(pf);
-		}
-
-		GrammaticalLabel.PronounCase pc = GrammaticalLabel.getPronounCase(grammLabelUid);
-
-		if(pc != GrammaticalLabel.PronounCase.NONE) {
-			sb.append(", ").append(pc);
-		}
-
-		GrammaticalLabel.Number n = GrammaticalLabel.getNumber(grammLabelUid);
-		if(n != GrammaticalLabel.Number.NONE) sb.append(", ").append(n);
-
-		GrammaticalLabel.Person p = GrammaticalLabel.getPerson(grammLabelUid);
-		if(p != GrammaticalLabel.Person.NONE) sb.append(", ").append(p);
-
-		if(n == GrammaticalLabel.Number.SINGULAR) {
-			GrammaticalLabel.Gender g = GrammaticalLabel.getGender(grammLabelUid);
-
-			if(g != GrammaticalLabel.Gender.NONE) {
-				sb.append(", ").append(g);
-			}
-		}
-
-		GrammaticalLabel.Article a = GrammaticalLabel.getArticle(grammLabelUid);
-		if(a != GrammaticalLabel.Article.NONE) sb.append(", ").append(a);
-
-		return sb.toString();
-	}
-
-	private String getVerbInfo() {
-		final StringBuilder sb = new StringBuilder();
-
-		GrammaticalLabel.VerbType vt = GrammaticalLabel.getVerbType(grammLabelUid);
-		sb.append(", ").append(vt);
-
-		GrammaticalLabel.Aspect a = GrammaticalLabel.getAspect(grammLabelUid);
-		sb.append(", ").append(a);
-
-		GrammaticalLabel.Transitivity t = GrammaticalLabel.getTransitivity(grammLabelUid);
-		sb.append(", ").append(t);
-
-		GrammaticalLabel.VerbForm vf = GrammaticalLabel.getVerbForm(grammLabelUid);
-		sb.append(", ").append(vf);
-
-		GrammaticalLabel.Voice v = GrammaticalLabel.getVoice(grammLabelUid);
-		if(v != GrammaticalLabel.Voice.NONE) sb.append(", ").append(v);
-
-		GrammaticalLabel.Tense te = GrammaticalLabel.getTense(grammLabelUid);
-		if(te != GrammaticalLabel.Tense.NONE) sb.append(", ").append(te);
-
-		GrammaticalLabel.Person p = GrammaticalLabel.getPerson(grammLabelUid);
-		if(p != GrammaticalLabel.Person.NONE) sb.append(", ").append(p);
-
-		GrammaticalLabel.Number n = GrammaticalLabel.getNumber(grammLabelUid);
-		if(n != GrammaticalLabel.Number.NONE) sb.append(", ").append(n);
-
-		GrammaticalLabel.Gender g = GrammaticalLabel.getGender(grammLabelUid);
-		if(g != GrammaticalLabel.Gender.NONE) sb.append(", ").append(g);
-
-		GrammaticalLabel.Article ar = GrammaticalLabel.getArticle(grammLabelUid);
-		if(ar != GrammaticalLabel.Article.NONE) sb.append(", ").append(ar);
-
-		return sb.toString();
-	}
-
-	private String getNumeralInfo() {
-		final StringBuilder sb = new StringBuilder();
-
-		GrammaticalLabel.NumeralType nt = GrammaticalLabel.getNumeralType(grammLabelUid);
-		if(nt != GrammaticalLabel.NumeralType.NONE) {
-			sb.append(", ").append(nt);
-		}
-
-		GrammaticalLabel.Gender g = GrammaticalLabel.getGender(grammLabelUid);
-
-		if(g != GrammaticalLabel.Gender.NONE) {
-			sb.append(", ").append(g);
-		}
-
-		GrammaticalLabel.Number n = GrammaticalLabel.getNumber(grammLabelUid);
-		if(n != GrammaticalLabel.Number.NONE) sb.append(", ").append(n);
-
-		GrammaticalLabel.Article a = GrammaticalLabel.getArticle(grammLabelUid);
-		if(a != GrammaticalLabel.Article.NONE) sb.append(", ").append(a);
-
-		return sb.toString();
-	}
-
-	private void addPadding(String word, StringBuffer buf) {
-		int i = 25 - word.length() - (isLemma() ? 7 : 0);
-		for(; i > 0; i--) buf.append(' ');
-	}
+	public String toString() { return WordEntryFormatter.toString(this); }
 }
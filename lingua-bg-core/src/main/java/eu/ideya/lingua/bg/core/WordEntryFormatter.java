@@ -0,0 +1,203 @@
+/*
+ *   Copyright (C) 2026 Grigor Iliev <grigor@grigoriliev.com>
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package eu.ideya.lingua.bg.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes the human-readable form of word entries and lexemes, as
+ * returned by {@link WordEntry#toString()} and {@link Lexeme#toString()},
+ * directly to an {@link Appendable}.
+ *
+ * <p>The output is appended piece by piece without intermediate strings
+ * and the label names are looked up once, so large numbers of entries
+ * can be written to a buffered writer at the speed of the writer.
+ */
+public final class WordEntryFormatter {
+	/** The lemma mark, with the parentheses. */
+	private static final String LEMMA = "(" + I18n.getInstance().getLabel("WordEntry.lemma") + ")";
+
+	/** The width of the word column, including the lemma mark. */
+	private static final int WORD_WIDTH = 25;
+
+	/** The width of the word column taken by the lemma mark. */
+	private static final int LEMMA_WIDTH = 7;
+
+	private static final String SPACES = "                         ";
+
+	private static final String SEPARATOR = ", ";
+
+	private static final String NL = System.lineSeparator();
+
+	private WordEntryFormatter() { }
+
+	/**
+	 * Appends the specified word entry, without a line separator.
+	 */
+	public static void format(WordEntry we, Appendable out) throws IOException {
+		final int g = we.grammLabelUid;
+
+		out.append(we.word);
+
+		int pad = WORD_WIDTH - we.word.length() - (we.isLemma() ? LEMMA_WIDTH : 0);
+		if(pad > 0) out.append(SPACES, 0, pad);
+		out.append(' ');
+
+		if(we.isLemma()) out.append(LEMMA);
+
+		GrammaticalLabel.LexicalClass l = GrammaticalLabel.getLexicalClass(g);
+		out.append(' ').append(l.toString());
+
+		switch(l) {
+			case NOUN: formatNoun(g, out); break;
+			case ADJECTIVE: formatAdjective(g, out); break;
+			case PRONOUN: formatPronoun(g, out); break;
+			case VERB: formatVerb(g, out); break;
+			case NUMERAL: formatNumeral(g, out); break;
+		}
+	}
+
+	/**
+	 * Appends the lemma and the forms of the specified lexeme,
+	 * each followed by a line separator.
+	 */
+	public static void format(Lexeme lexeme, Appendable out) throws IOException {
+		println(lexeme.lemma, out);
+		for(WordEntry we : lexeme.forms) println(we, out);
+	}
+
+	/**
+	 * Appends the specified word entry, followed by a line separator.
+	 */
+	public static void println(WordEntry we, Appendable out) throws IOException {
+		format(we, out);
+		out.append(NL);
+	}
+
+	/** Returns the specified word entry formatted as a string. */
+	public static String toString(WordEntry we) {
+		StringBuilder sb = new StringBuilder(64);
+		try { format(we, sb); }
+		catch(IOException e) { throw new UncheckedIOException(e); }
+		return sb.toString();
+	}
+
+	/** Returns the specified lexeme formatted as a string. */
+	public static String toString(Lexeme lexeme) {
+		StringBuilder sb = new StringBuilder(64 * (lexeme.forms.length + 1));
+		try { format(lexeme, sb); }
+		catch(IOException e) { throw new UncheckedIOException(e); }
+		return sb.toString();
+	}
+
+	private static void formatNoun(int g, Appendable out) throws IOException {
+		GrammaticalLabel.NounCase nc = GrammaticalLabel.getNounCase(g);
+		if(nc != GrammaticalLabel.NounCase.NONE) {
+			out.append(" (").append(String.valueOf(nc)).append(')');
+		}
+
+		append(GrammaticalLabel.getNounType(g), out);
+		append(GrammaticalLabel.getGender(g), out);
+
+		GrammaticalLabel.Article a = GrammaticalLabel.getArticle(g);
+		if(a != GrammaticalLabel.Article.NONE) append(a, out);
+
+		append(GrammaticalLabel.getNumber(g), out);
+	}
+
+	private static void formatAdjective(int g, Appendable out) throws IOException {
+		GrammaticalLabel.AdjectiveCase ac = GrammaticalLabel.getAdjectiveCase(g);
+		if(ac != GrammaticalLabel.AdjectiveCase.NONE) {
+			out.append(" (").append(String.valueOf(ac)).append(')');
+		}
+
+		GrammaticalLabel.Number n = GrammaticalLabel.getNumber(g);
+		if(n == GrammaticalLabel.Number.SINGULAR) append(GrammaticalLabel.getGender(g), out);
+
+		append(n, out);
+		append(GrammaticalLabel.getArticle(g), out);
+	}
+
+	private static void formatPronoun(int g, Appendable out) throws IOException {
+		append(GrammaticalLabel.getPronounType(g), out);
+
+		GrammaticalLabel.PronounForm pf = GrammaticalLabel.getPronounForm(g);
+		if(pf != GrammaticalLabel.PronounForm.NONE) append(pf, out);
+
+		GrammaticalLabel.PronounCase pc = GrammaticalLabel.getPronounCase(g);
+		if(pc != GrammaticalLabel.PronounCase.NONE) append(pc, out);
+
+		GrammaticalLabel.Number n = GrammaticalLabel.getNumber(g);
+		if(n != GrammaticalLabel.Number.NONE) append(n, out);
+
+		GrammaticalLabel.Person p = GrammaticalLabel.getPerson(g);
+		if(p != GrammaticalLabel.Person.NONE) append(p, out);
+
+		if(n == GrammaticalLabel.Number.SINGULAR) {
+			GrammaticalLabel.Gender ge = GrammaticalLabel.getGender(g);
+			if(ge != GrammaticalLabel.Gender.NONE) append(ge, out);
+		}
+
+		GrammaticalLabel.Article a = GrammaticalLabel.getArticle(g);
+		if(a != GrammaticalLabel.Article.NONE) append(a, out);
+	}
+
+	private static void formatVerb(int g, Appendable out) throws IOException {
+		append(GrammaticalLabel.getVerbType(g), out);
+		append(GrammaticalLabel.getAspect(g), out);
+		append(GrammaticalLabel.getTransitivity(g), out);
+		append(GrammaticalLabel.getVerbForm(g), out);
+
+		GrammaticalLabel.Voice v = GrammaticalLabel.getVoice(g);
+		if(v != GrammaticalLabel.Voice.NONE) append(v, out);
+
+		GrammaticalLabel.Tense te = GrammaticalLabel.getTense(g);
+		if(te != GrammaticalLabel.Tense.NONE) append(te, out);
+
+		GrammaticalLabel.Person p = GrammaticalLabel.getPerson(g);
+		if(p != GrammaticalLabel.Person.NONE) append(p, out);
+
+		GrammaticalLabel.Number n = GrammaticalLabel.getNumber(g);
+		if(n != GrammaticalLabel.Number.NONE) append(n, out);
+
+		GrammaticalLabel.Gender ge = GrammaticalLabel.getGender(g);
+		if(ge != GrammaticalLabel.Gender.NONE) append(ge, out);
+
+		GrammaticalLabel.Article a = GrammaticalLabel.getArticle(g);
+		if(a != GrammaticalLabel.Article.NONE) append(a, out);
+	}
+
+	private static void formatNumeral(int g, Appendable out) throws IOException {
+		GrammaticalLabel.NumeralType nt = GrammaticalLabel.getNumeralType(g);
+		if(nt != GrammaticalLabel.NumeralType.NONE) append(nt, out);
+
+		GrammaticalLabel.Gender ge = GrammaticalLabel.getGender(g);
+		if(ge != GrammaticalLabel.Gender.NONE) append(ge, out);
+
+		GrammaticalLabel.Number n = GrammaticalLabel.getNumber(g);
+		if(n != GrammaticalLabel.Number.NONE) append(n, out);
+
+		GrammaticalLabel.Article a = GrammaticalLabel.getArticle(g);
+		if(a != GrammaticalLabel.Article.NONE) append(a, out);
+	}
+
+	/** Appends the separator and the name of the specified feature value. */
+	private static void append(Object feature, Appendable out) throws IOException {
+		out.append(SEPARATOR).append(String.valueOf(feature));
+	}
+}
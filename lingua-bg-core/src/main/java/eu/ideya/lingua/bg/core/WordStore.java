@@ -0,0 +1,188 @@
+/*
+ *   Copyright (C) 2026 Grigor Iliev <grigor@grigoriliev.com>
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package eu.ideya.lingua.bg.core;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.CharBuffer;
+
+/**
+ * An immutable, compact store of sorted distinct words, which are
+ * front-coded: each word is stored as the length of the prefix it shares
+ * with the previous word, followed by the rest of the word. The word forms
+ * of a lexeme mostly follow each other in sorted order, so only their
+ * endings are stored.
+ *
+ * <p>The characters are stored in a single-byte code page, in which
+ * ASCII is kept as is and the bytes from <code>0x80</code> to
+ * <code>0xFF</code> are the Cyrillic letters from <code>U+0400</code>
+ * to <code>U+047F</code>. Other characters are escaped.
+ *
+ * <p>The words are split in buckets of {@link #BUCKET_SIZE} words and the
+ * first word in each bucket is stored in full, so a word is decoded from
+ * the start of its bucket.
+ */
+final class WordStore {
+	/** The number of words in a bucket. Must be a power of two. */
+	static final int BUCKET_SIZE = 16;
+
+	private static final int BUCKET_SHIFT = Integer.numberOfTrailingZeros(BUCKET_SIZE);
+
+	/** Followed by the two bytes of a character out of the code page. */
+	private static final int ESCAPE = 0x7F;
+
+	private static final char CYRILLIC = '\u0400';
+
+	/** The encoded words. */
+	private final byte[] data;
+
+	/** The start of each bucket in <code>data</code>. */
+	private final int[] buckets;
+
+	private final int size;
+
+	/** The length of the longest word. */
+	private final int maxLength;
+
+	/**
+	 * Creates a store of the specified words.
+	 * @param words Distinct words sorted in natural order.
+	 */
+	WordStore(String[] words) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(words.length * 4);
+		buckets = new int[(words.length + BUCKET_SIZE - 1) >>> BUCKET_SHIFT];
+		size = words.length;
+
+		int max = 0;
+		String prev = "";
+
+		for(int w = 0; w < words.length; w++) {
+			String s = words[w];
+			max = Math.max(max, s.length());
+
+			int prefix = 0;
+			if((w & (BUCKET_SIZE - 1)) == 0) {
+				buckets[w >>> BUCKET_SHIFT] = out.size();
+			} else {
+				int n = Math.min(prev.length(), s.length());
+				while(prefix < n && prev.charAt(prefix) == s.charAt(prefix)) prefix++;
+				writeLength(out, prefix);
+			}
+
+			writeLength(out, s.length() - prefix);
+			for(int i = prefix; i < s.length(); i++) writeChar(out, s.charAt(i));
+
+			prev = s;
+		}
+
+		data = out.toByteArray();
+		maxLength = max;
+	}
+
+	/** Returns the number of words in this store. */
+	int size() { return size; }
+
+	/** Returns the number of bytes used by the encoded words. */
+	int getDataSize() { return data.length + buckets.length * 4; }
+
+	/**
+	 * Returns the word with the specified index. The returned view is
+	 * not shared, so it can be kept by the caller.
+	 */
+	CharSequence getWord(int w) {
+		char[] buf = new char[maxLength];
+		return CharBuffer.wrap(buf, 0, decode(w, buf));
+	}
+
+	/** Returns the word with the specified index as a string. */
+	String getString(int w) {
+		char[] buf = new char[maxLength];
+		return new String(buf, 0, decode(w, buf));
+	}
+
+	/**
+	 * Decodes the word with the specified index into the specified
+	 * buffer and returns the length of the word.
+	 */
+	private int decode(int w, char[] buf) {
+		if(w < 0 || w >= size) throw new IndexOutOfBoundsException(String.valueOf(w));
+
+		int pos = buckets[w >>> BUCKET_SHIFT];
+		int len = 0;
+
+		for(int k = w & ~(BUCKET_SIZE - 1); ; k++) {
+			int prefix = 0;
+
+			if((k & (BUCKET_SIZE - 1)) != 0) {
+				prefix = data[pos] & 0xFF;
+				if(prefix >= 0x80) {
+					prefix = (prefix & 0x7F) | ((data[pos + 1] & 0xFF) << 7);
+					pos += 2;
+				} else {
+					pos++;
+				}
+			}
+
+			int n = data[pos] & 0xFF;
+			if(n >= 0x80) {
+				n = (n & 0x7F) | ((data[pos + 1] & 0xFF) << 7);
+				pos += 2;
+			} else {
+				pos++;
+			}
+
+			len = prefix;
+			for(int i = 0; i < n; i++) {
+				int b = data[pos++] & 0xFF;
+
+				if(b >= 0x80) {
+					buf[len++] = (char)(CYRILLIC + b - 0x80);
+				} else if(b == ESCAPE) {
+					buf[len++] = (char)(((data[pos] & 0xFF) << 8) | (data[pos + 1] & 0xFF));
+					pos += 2;
+				} else {
+					buf[len++] = (char)b;
+				}
+			}
+
+			if(k == w) return len;
+		}
+	}
+
+	/** Writes a length up to <code>2^15 - 1</code> in one or two bytes. */
+	private static void writeLength(ByteArrayOutputStream out, int n) {
+		if(n >= 1 << 15) throw new IllegalArgumentException("word too long");
+
+		if(n < 0x80) {
+			out.write(n);
+		} else {
+			out.write(0x80 | (n & 0x7F));
+			out.write(n >>> 7);
+		}
+	}
+
+	private static void writeChar(ByteArrayOutputStream out, char c) {
+		if(c >= CYRILLIC && c < CYRILLIC + 0x80) {
+			out.write(c - CYRILLIC + 0x80);
+		} else if(c < 0x80 && c != ESCAPE) {
+			out.write(c);
+		} else {
+			out.write(ESCAPE);
+			out.write(c >>> 8);
+			out.write(c & 0xFF);
+		}
+	}
+}
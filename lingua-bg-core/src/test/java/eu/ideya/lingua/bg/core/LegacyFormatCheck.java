@@ -0,0 +1,65 @@
+/*
+ *   Copyright (C) 2026 Grigor Iliev <grigor@grigoriliev.com>
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package eu.ideya.lingua.bg.core;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+
+/**
+ * Checks that a dictionary written in the legacy Java serialization
+ * format by the previous versions is still read by
+ * {@link BgDictionary#readFromFile(String)}. The file
+ * <code>legacy-dictionary.ser</code> was written by the old
+ * <code>writeToFile</code> from the lexemes in
+ * <code>legacy-dictionary.txt</code>.
+ *
+ * <p>Usage: <code>LegacyFormatCheck</code>. Exits with status 1 if
+ * the dictionaries differ.
+ */
+public class LegacyFormatCheck {
+	public static void main(String[] args) throws Exception {
+		File ser = File.createTempFile("legacy-dictionary", ".ser");
+		ser.deleteOnExit();
+
+		try(InputStream in = LegacyFormatCheck.class.getResourceAsStream("legacy-dictionary.ser")) {
+			Files.copy(in, ser.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+
+		BgDictionary expected = new BgDictionary();
+		try(InputStream in = LegacyFormatCheck.class.getResourceAsStream("legacy-dictionary.txt")) {
+			expected.importFromStream(in);
+		}
+
+		BgDictionary dict = new BgDictionary();
+		dict.readFromFile(ser.getAbsolutePath());
+
+		int diff = 0;
+		Iterator<Lexeme> it = dict.lexemes().iterator();
+		for(Lexeme l : expected.lexemes()) {
+			if(!it.hasNext() || !l.sameAs(it.next())) diff++;
+		}
+		if(it.hasNext()) diff++;
+
+		System.out.println("words: " + dict.getTokenCount() + " of " +
+			expected.getTokenCount() + ", different lexemes: " + diff);
+
+		if(diff > 0 || dict.getTokenCount() != expected.getTokenCount()) System.exit(1);
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ *   Copyright (C) 2026 Grigor Iliev <grigor@grigoriliev.com>
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package eu.ideya.lingua.bg.core;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the throughput of concurrent <code>findLemmas</code> lookups
+ * in a read-only dictionary made by {@link BgDictionary.Builder#build()}
+ * with 1 to 64 reader threads. The readers don't lock, so the throughput
+ * should grow with the threads up to the number of processors.
+ *
+ * <p>Usage: <code>ReaderThroughputBenchmark [lexeme-file [seconds]]</code>.
+ * Without a lexeme file a synthetic dictionary of 20000 lexemes is used.
+ */
+public class ReaderThroughputBenchmark {
+	private static final int[] THREADS = { 1, 2, 4, 8, 16, 32, 64 };
+
+	private static final String ALPHABET = "абвгдежзийклмнопрстуфхцчшщъьюя";
+
+	private static final String[] NOUN_SUFFIXES = { "", "а", "и", "ът", "ите" };
+	private static final String[] NOUN_TAGS = { null, "Ncmsh", "Ncmpi", "Ncmsf", "Ncmpd" };
+
+	public static void main(String[] args) throws Exception {
+		BgDictionary.Builder b = new BgDictionary.Builder();
+		if(args.length > 0) b.importFromFile(args[0]);
+		else addSyntheticLexemes(b, 20000);
+
+		BgDictionary dict = b.build();
+		long millis = args.length > 1 ? Long.parseLong(args[1]) * 1000 : 2000;
+
+		ArrayList<String> words = new ArrayList<>();
+		for(Lexeme l : dict.lexemes()) {
+			words.add(l.lemma.word);
+			for(WordEntry we : l.forms) words.add(we.word);
+		}
+
+		String[] tokens = words.toArray(new String[0]);
+		System.out.println("words: " + tokens.length + ", processors: " +
+			Runtime.getRuntime().availableProcessors());
+
+		run(dict, tokens, 1, millis); // warm-up
+
+		double base = 0;
+		for(int n : THREADS) {
+			double opsPerSec = run(dict, tokens, n, millis);
+			if(n == 1) base = opsPerSec;
+
+			System.out.printf("%2d threads: %,12.0f lookups/s, speedup %5.2f%n", n, opsPerSec, opsPerSec / base);
+		}
+	}
+
+	/**
+	 * Runs <code>threads</code> readers for <code>millis</code>
+	 * milliseconds and returns the lookups per second.
+	 */
+	private static double run(BgDictionary dict, String[] tokens, int threads, long millis)
+		throws InterruptedException {
+
+		LongAdder ops = new LongAdder();
+		AtomicBoolean stop = new AtomicBoolean(false);
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] readers = new Thread[threads];
+
+		for(int i = 0; i < threads; i++) {
+			final Random r = new Random(i);
+
+			readers[i] = new Thread(() -> {
+				try { start.await(); }
+				catch(InterruptedException e) { return; }
+
+				long n = 0, found = 0;
+				while(!stop.get()) {
+					found += dict.findLemmas(tokens[r.nextInt(tokens.length)]).length;
+					n++;
+				}
+
+				if(n > 0 && found == 0) throw new IllegalStateException("no lemmas found");
+				ops.add(n);
+			});
+
+			readers[i].start();
+		}
+
+		long t = System.nanoTime();
+		start.countDown();
+		Thread.sleep(millis);
+		stop.set(true);
+		for(Thread th : readers) th.join();
+
+		return ops.sum() * 1e9 / (System.nanoTime() - t);
+	}
+
+	private static void addSyntheticLexemes(BgDictionary.Builder b, int count) throws Exception {
+		int noun = GrammaticalLabel.getUidByGrammarType("1");
+		int[] gluids = new int[NOUN_TAGS.length];
+		for(int i = 0; i < gluids.length; i++) {
+			gluids[i] = NOUN_TAGS[i] == null ? noun : BTBUtils.getGrammLabelUid(NOUN_TAGS[i], noun);
+		}
+
+		Random r = new Random(42);
+		StringBuilder sb = new StringBuilder();
+		HashSet<String> stems = new HashSet<>();
+
+		for(int i = 0; i < count; i++) {
+			sb.setLength(0);
+			int len = 3 + r.nextInt(6);
+			for(int j = 0; j < len; j++) sb.append(ALPHABET.charAt(r.nextInt(ALPHABET.length())));
+			String stem = sb.toString();
+			if(!stems.add(stem)) continue;
+
+			WordEntry lemma = b.addWord(stem, gluids[0], -1);
+			for(int k = 1; k < gluids.length; k++) b.addWord(stem + NOUN_SUFFIXES[k], gluids[k], lemma.id);
+		}
+	}
+}